@@ -0,0 +1,192 @@
+/*
+ * Copyright 2012-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.experimental.boot.server.exec;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.log.LogMessage;
+
+/**
+ * Manages a JDK AOT cache (JEP 483) for an application. The AOT cache contains the
+ * classes in a loaded and linked state, so it provides a larger startup improvement than
+ * a CDS archive. The cache is created in two steps: a training run that records an AOT
+ * configuration and exits as soon as the {@code ApplicationContext} is refreshed, and a
+ * run that creates the cache from the configuration. The cache is keyed by a fingerprint
+ * of the classpath, the JVM and the JVM options so that it is recreated whenever any of
+ * them changes.
+ * <p>
+ * Like CDS, the JVM cannot cache classes from directories, so the directories on the
+ * classpath are replaced with content addressed jars (see
+ * {@link ContentAddressedClasspath}).
+ *
+ * @author Rob Winch
+ */
+final class AotCache implements StartupCache {
+
+	/**
+	 * The first feature release that supports {@code -XX:AOTMode} and
+	 * {@code -XX:AOTCache}.
+	 */
+	static final int MINIMUM_FEATURE_VERSION = 24;
+
+	private static final Log logger = LogFactory.getLog(AotCache.class);
+
+	private static final Map<String, Object> locks = new ConcurrentHashMap<>();
+
+	private final JavaExecutable java;
+
+	private final List<String> jvmOptions;
+
+	private final Path cacheDirectory;
+
+	private final Duration trainingTimeout;
+
+	AotCache(String executable, List<String> jvmOptions, Path cacheDirectory, Duration trainingTimeout) {
+		this.java = JavaExecutable.of(executable);
+		this.jvmOptions = jvmOptions;
+		this.cacheDirectory = cacheDirectory;
+		this.trainingTimeout = trainingTimeout;
+	}
+
+	/**
+	 * Determines if the java executable supports creating and using an AOT cache.
+	 * @param executable the java executable
+	 * @return true if the AOT cache is supported, else false
+	 */
+	static boolean isSupported(String executable) {
+		return JavaExecutable.of(executable).getFeatureVersion() >= MINIMUM_FEATURE_VERSION;
+	}
+
+	/**
+	 * Replaces the directories on the classpath with content addressed jars.
+	 */
+	@Override
+	public List<String> classpath(List<String> classpath) {
+		return ContentAddressedClasspath.jarDirectories(classpath, this.cacheDirectory.resolve("classpath"));
+	}
+
+	/**
+	 * A failed training run is not retried until the fingerprint changes. The JVM ignores
+	 * a cache that does not match the classpath rather than failing.
+	 */
+	@Override
+	public List<String> jvmArguments(List<String> classpath,
+			Function<Map<String, String>, List<String>> applicationArguments) {
+		String fingerprint = ContentAddressedClasspath.fingerprint(classpath, this.java.getIdentity(),
+				String.join(" ", this.jvmOptions));
+		Path cache = this.cacheDirectory.resolve(fingerprint + ".aot");
+		Path failed = this.cacheDirectory.resolve(fingerprint + ".failed");
+		synchronized (locks.computeIfAbsent(fingerprint, (key) -> new Object())) {
+			if (!Files.exists(cache) && !Files.exists(failed)) {
+				train(cache, failed, classpath, applicationArguments);
+			}
+		}
+		if (!Files.exists(cache)) {
+			return List.of();
+		}
+		return List.of("-XX:AOTCache=" + cache);
+	}
+
+	private void train(Path cache, Path failed, List<String> classpath,
+			Function<Map<String, String>, List<String>> applicationArguments) {
+		String name = cache.getFileName().toString();
+		String suffix = "." + ProcessHandle.current().pid() + ".tmp";
+		Path configuration = cache.resolveSibling(name + "conf" + suffix);
+		Path trainingCache = cache.resolveSibling(name + suffix);
+		Path trainingLog = cache.resolveSibling(name + ".log");
+		Path trainingPortFile = cache.resolveSibling(name + ".port");
+		List<String> record = new ArrayList<>();
+		record.add(this.java.getExecutable());
+		record.addAll(this.jvmOptions);
+		record.add("-XX:AOTMode=record");
+		record.add("-XX:AOTConfiguration=" + configuration);
+		record.addAll(applicationArguments.apply(Map.of("spring.context.exit", "onRefresh", "PORTFILE",
+				trainingPortFile.toAbsolutePath().toString())));
+		List<String> create = new ArrayList<>();
+		create.add(this.java.getExecutable());
+		create.addAll(this.jvmOptions);
+		create.addAll(List.of("-XX:AOTMode=create", "-XX:AOTConfiguration=" + configuration,
+				"-XX:AOTCache=" + trainingCache, "-classpath", String.join(File.pathSeparator, classpath)));
+		if (logger.isDebugEnabled()) {
+			logger.debug(LogMessage.format("Creating AOT cache %s using %s and %s", cache, record, create));
+		}
+		try {
+			Files.createDirectories(this.cacheDirectory);
+			Files.deleteIfExists(trainingLog);
+			TrainingRun.run(record, trainingLog, this.trainingTimeout);
+			if (Files.exists(configuration)) {
+				TrainingRun.run(create, trainingLog, this.trainingTimeout);
+			}
+			if (Files.exists(trainingCache)) {
+				ContentAddressedClasspath.moveAtomically(trainingCache, cache);
+			}
+			else {
+				Files.writeString(failed, trainingLog.toString());
+				logger.warn(LogMessage.format("Failed to create AOT cache %s, starting without it. See %s", cache,
+						trainingLog));
+			}
+		}
+		catch (IOException ex) {
+			markFailed(failed, ex);
+			logger.warn(LogMessage.format("Failed to create AOT cache %s, starting without it", cache), ex);
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+		finally {
+			deleteQuietly(configuration);
+			deleteQuietly(trainingPortFile);
+		}
+	}
+
+	/**
+	 * Records that the training failed, so that it is not retried until the fingerprint
+	 * changes. Failing to record it only means that the training is retried.
+	 * @param failed the file that records the failure
+	 * @param failure the reason the training failed
+	 */
+	private static void markFailed(Path failed, IOException failure) {
+		try {
+			Files.writeString(failed, failure.toString());
+		}
+		catch (IOException ex) {
+			// ignore
+		}
+	}
+
+	private static void deleteQuietly(Path path) {
+		try {
+			Files.deleteIfExists(path);
+		}
+		catch (IOException ex) {
+			// ignore
+		}
+	}
+
+}
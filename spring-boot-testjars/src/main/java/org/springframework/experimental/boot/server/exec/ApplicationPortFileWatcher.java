@@ -24,79 +24,104 @@ import java.nio.file.Files;
 import java.nio.file.StandardWatchEventKinds;
 import java.nio.file.WatchKey;
 import java.nio.file.WatchService;
-import java.util.function.Consumer;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Use {@link #getApplicationPort()} to block until {@link #applicationPortFile} is
  * created and has content to read the contents of the file as an integer that represents
- * the application port.
+ * the application port. Use {@link #close()} to stop waiting for the port.
  *
  * @author Rob Winch
  */
-final class ApplicationPortFileWatcher {
+final class ApplicationPortFileWatcher implements AutoCloseable {
 
 	private final File applicationPortFile;
 
-	private final Consumer<WatchService> registerWatchService;
+	private WatchService watchService;
+
+	private boolean closed;
 
 	/**
 	 * Create a new instance.
 	 * @param applicationPortFile the file to read the application port from
-	 * @param registerWatchService a {@link Consumer} that allows registering the
-	 * {@link WatchService} used.
 	 */
-	ApplicationPortFileWatcher(File applicationPortFile, Consumer<WatchService> registerWatchService) {
+	ApplicationPortFileWatcher(File applicationPortFile) {
 		this.applicationPortFile = applicationPortFile;
-		this.registerWatchService = registerWatchService;
 	}
 
 	/**
-	 * Create a new instance.
-	 * @param applicationPortFile the file to read the application port from
+	 * Returns the port from the contents of the {@link #applicationPortFile} once content
+	 * is available. If the {@link File} does not exist, or there is no content, then it
+	 * blocks until both conditions are true.
+	 * @return the port number from the {@link #applicationPortFile}
+	 * @throws InterruptedException if {@link #close()} is invoked before the port is
+	 * available
 	 */
-	ApplicationPortFileWatcher(File applicationPortFile) {
-		this(applicationPortFile, (watchService) -> {
-		});
+	int getApplicationPort() throws InterruptedException {
+		try {
+			return getApplicationPort(null);
+		}
+		catch (TimeoutException ex) {
+			throw new IllegalStateException("Unexpected timeout without a timeout", ex);
+		}
 	}
 
 	/**
 	 * Returns the port from the contents of the {@link #applicationPortFile} once content
 	 * is available. If the {@link File} does not exist, or there is no content, then it
-	 * blocks until both conditions are true.
+	 * blocks until both conditions are true or the timeout elapses.
+	 * @param timeout the maximum time to wait or {@code null} to wait indefinitely
 	 * @return the port number from the {@link #applicationPortFile}
+	 * @throws InterruptedException if {@link #close()} is invoked before the port is
+	 * available
+	 * @throws TimeoutException if the port is not available before the timeout elapses
 	 */
-	int getApplicationPort() throws InterruptedException {
-		Integer port;
-		// FIXME: Add a timeout
-		try (WatchService watch = FileSystems.getDefault().newWatchService()) {
-			this.registerWatchService.accept(watch);
+	int getApplicationPort(Duration timeout) throws InterruptedException, TimeoutException {
+		long deadline = (timeout != null) ? System.nanoTime() + timeout.toNanos() : 0;
+		try (WatchService watch = openWatchService()) {
 			this.applicationPortFile.getParentFile().toPath().register(watch, StandardWatchEventKinds.ENTRY_CREATE,
 					StandardWatchEventKinds.ENTRY_MODIFY);
 			// check after we are watching for events, but before take an event if the
 			// file exists already
-			port = readPort();
-			WatchKey watchKey;
+			Integer port = readPort();
 			while (port == null) {
-				try {
-					watchKey = watch.take();
-				}
-				catch (ClosedWatchServiceException ex) {
-					throw (InterruptedException) new InterruptedException().initCause(ex);
-				}
+				WatchKey watchKey = (timeout != null) ? watch.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)
+						: watch.take();
 				port = readPort();
-				watchKey.reset();
-				if (port != null) {
-					return port;
+				if (watchKey != null) {
+					watchKey.reset();
+				}
+				if (port == null && timeout != null && deadline - System.nanoTime() <= 0) {
+					throw new TimeoutException("The port was not written to " + this.applicationPortFile
+							+ " within " + timeout);
 				}
 			}
+			return port;
+		}
+		catch (ClosedWatchServiceException ex) {
+			throw (InterruptedException) new InterruptedException().initCause(ex);
 		}
 		catch (IOException ex) {
 			throw new RuntimeException(ex);
 		}
-		return port;
 	}
 
-	private Integer readPort() throws IOException {
+	private synchronized WatchService openWatchService() throws IOException {
+		if (this.closed) {
+			throw new ClosedWatchServiceException();
+		}
+		this.watchService = FileSystems.getDefault().newWatchService();
+		return this.watchService;
+	}
+
+	/**
+	 * Reads the port from the {@link #applicationPortFile} without blocking.
+	 * @return the port or {@code null} if the port has not been written yet
+	 * @throws IOException if the file cannot be read
+	 */
+	Integer readPort() throws IOException {
 		if (!this.applicationPortFile.exists()) {
 			return null;
 		}
@@ -107,4 +132,21 @@ final class ApplicationPortFileWatcher {
 		return Integer.parseInt(applicationPort);
 	}
 
+	/**
+	 * Stops waiting for the port. Any current or future invocation of
+	 * {@link #getApplicationPort()} throws an {@link InterruptedException}.
+	 */
+	@Override
+	public synchronized void close() {
+		this.closed = true;
+		if (this.watchService != null) {
+			try {
+				this.watchService.close();
+			}
+			catch (IOException ex) {
+				throw new RuntimeException("Failed to close WatchService", ex);
+			}
+		}
+	}
+
 }
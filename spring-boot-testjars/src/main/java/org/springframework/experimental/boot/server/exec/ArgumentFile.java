@@ -0,0 +1,125 @@
+/*
+ * Copyright 2012-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.experimental.boot.server.exec;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.exec.CommandLine;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.log.LogMessage;
+import org.springframework.experimental.boot.server.exec.detector.ParentWatchdogMain;
+
+/**
+ * Moves the arguments of a {@code java} command into a command line argument file that
+ * is passed as {@code @file}, so that a large classpath does not make the command line
+ * of the process long (e.g. in the output of {@code ps} or beyond {@code ARG_MAX}).
+ * Argument files are supported by Java 9+.
+ * <p>
+ * The file is named after the fingerprint of the command (see
+ * {@link SharedWebServerRegistry#fingerprint(CommandLine)}) and is only written if its
+ * content changed, so identical commands reuse the same file. The {@code PORTFILE}
+ * system property is unique to every server and the process id of the current JVM is
+ * unique to every test run, so both remain on the command line.
+ *
+ * @author Rob Winch
+ */
+final class ArgumentFile {
+
+	private static final Log logger = LogFactory.getLog(ArgumentFile.class);
+
+	private static final List<String> COMMAND_LINE_ARGUMENTS = List.of("-DPORTFILE=",
+			"-D" + ParentWatchdogMain.PARENT_PID + "=");
+
+	/**
+	 * Creates a command that runs the same application as the provided command by
+	 * reading its arguments from an argument file in the provided directory.
+	 * @param commandLine the command to move the arguments of
+	 * @param directory the directory to write the argument file to
+	 * @return the command that uses the argument file
+	 */
+	static CommandLine create(CommandLine commandLine, Path directory) {
+		CommandLine argumentFileCommandLine = new CommandLine(commandLine.getExecutable());
+		List<String> lines = new ArrayList<>();
+		for (String argument : commandLine.getArguments()) {
+			if (COMMAND_LINE_ARGUMENTS.stream().anyMatch(argument::startsWith)) {
+				argumentFileCommandLine.addArgument(argument, false);
+			}
+			else {
+				lines.add(quote(argument));
+			}
+		}
+		Path argumentFile = directory.resolve(SharedWebServerRegistry.fingerprint(commandLine) + ".args");
+		try {
+			write(argumentFile, String.join(System.lineSeparator(), lines) + System.lineSeparator());
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Failed to write the argument file " + argumentFile, ex);
+		}
+		argumentFileCommandLine.addArgument("@" + argumentFile.toAbsolutePath(), false);
+		return argumentFileCommandLine;
+	}
+
+	private static void write(Path argumentFile, String content) throws IOException {
+		if (Files.isRegularFile(argumentFile) && content.equals(Files.readString(argumentFile))) {
+			if (logger.isDebugEnabled()) {
+				logger.debug(LogMessage.format("Reusing the argument file %s", argumentFile));
+			}
+			return;
+		}
+		Files.createDirectories(argumentFile.getParent());
+		Path tmp = Files.createTempFile(argumentFile.getParent(), argumentFile.getFileName().toString(), ".tmp");
+		Files.writeString(tmp, content, StandardCharsets.UTF_8);
+		ContentAddressedClasspath.moveAtomically(tmp, argumentFile);
+	}
+
+	/**
+	 * Quotes an argument, so that whitespace, quotes and backslashes (e.g. in Windows
+	 * paths) are read as part of the argument.
+	 * @param argument the argument to quote
+	 * @return the quoted argument
+	 */
+	private static String quote(String argument) {
+		StringBuilder quoted = new StringBuilder(argument.length() + 2).append('"');
+		for (int i = 0; i < argument.length(); i++) {
+			char c = argument.charAt(i);
+			if (c == '\\' || c == '"') {
+				quoted.append('\\').append(c);
+			}
+			else if (c == '\n') {
+				quoted.append("\\n");
+			}
+			else if (c == '\r') {
+				quoted.append("\\r");
+			}
+			else {
+				quoted.append(c);
+			}
+		}
+		return quoted.append('"').toString();
+	}
+
+	private ArgumentFile() {
+	}
+
+}
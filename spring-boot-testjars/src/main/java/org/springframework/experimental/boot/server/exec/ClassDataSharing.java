@@ -0,0 +1,161 @@
+/*
+ * Copyright 2012-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.experimental.boot.server.exec;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.log.LogMessage;
+
+/**
+ * Manages a dynamic Class Data Sharing (CDS) archive for an application. The archive is
+ * created with a training run that exits as soon as the {@code ApplicationContext} is
+ * refreshed, and is keyed by a fingerprint of the classpath, the JVM and the JVM options
+ * so that it is recreated whenever any of them changes.
+ * <p>
+ * The JVM cannot archive classes from directories, so the directories on the classpath
+ * are replaced with content addressed jars (see {@link ContentAddressedClasspath}).
+ *
+ * @author Rob Winch
+ */
+final class ClassDataSharing implements StartupCache {
+
+	private static final Log logger = LogFactory.getLog(ClassDataSharing.class);
+
+	private static final Map<String, Object> locks = new ConcurrentHashMap<>();
+
+	private final JavaExecutable java;
+
+	private final List<String> jvmOptions;
+
+	private final Path archiveDirectory;
+
+	private final Duration trainingTimeout;
+
+	ClassDataSharing(String executable, List<String> jvmOptions, Path archiveDirectory, Duration trainingTimeout) {
+		this.java = JavaExecutable.of(executable);
+		this.jvmOptions = jvmOptions;
+		this.archiveDirectory = archiveDirectory;
+		this.trainingTimeout = trainingTimeout;
+	}
+
+	/**
+	 * Replaces the directories on the classpath with content addressed jars.
+	 */
+	@Override
+	public List<String> classpath(List<String> classpath) {
+		return ContentAddressedClasspath.jarDirectories(classpath, this.archiveDirectory.resolve("classpath"));
+	}
+
+	/**
+	 * A failed training run is not retried until the fingerprint changes. The archive is
+	 * used with {@code -Xshare:auto} so that a stale archive is ignored by the JVM rather
+	 * than causing a failure.
+	 */
+	@Override
+	public List<String> jvmArguments(List<String> classpath,
+			Function<Map<String, String>, List<String>> applicationArguments) {
+		String fingerprint = ContentAddressedClasspath.fingerprint(classpath, this.java.getIdentity(),
+				String.join(" ", this.jvmOptions));
+		Path archive = this.archiveDirectory.resolve(fingerprint + ".jsa");
+		Path failed = this.archiveDirectory.resolve(fingerprint + ".failed");
+		synchronized (locks.computeIfAbsent(fingerprint, (key) -> new Object())) {
+			if (!Files.exists(archive) && !Files.exists(failed)) {
+				train(archive, failed, applicationArguments);
+			}
+		}
+		if (!Files.exists(archive)) {
+			return List.of();
+		}
+		return List.of("-XX:SharedArchiveFile=" + archive, "-Xshare:auto");
+	}
+
+	private void train(Path archive, Path failed,
+			Function<Map<String, String>, List<String>> applicationArguments) {
+		String name = archive.getFileName().toString();
+		Path trainingArchive = archive.resolveSibling(name + "." + ProcessHandle.current().pid() + ".tmp");
+		Path trainingLog = archive.resolveSibling(name + ".log");
+		Path trainingPortFile = archive.resolveSibling(name + ".port");
+		List<String> command = new ArrayList<>();
+		command.add(this.java.getExecutable());
+		command.addAll(this.jvmOptions);
+		command.add("-XX:ArchiveClassesAtExit=" + trainingArchive);
+		command.addAll(applicationArguments.apply(Map.of("spring.context.exit", "onRefresh", "PORTFILE",
+				trainingPortFile.toAbsolutePath().toString())));
+		if (logger.isDebugEnabled()) {
+			logger.debug(LogMessage.format("Creating CDS archive %s using %s", archive, command));
+		}
+		try {
+			Files.createDirectories(this.archiveDirectory);
+			Files.deleteIfExists(trainingLog);
+			TrainingRun.run(command, trainingLog, this.trainingTimeout);
+			if (Files.exists(trainingArchive)) {
+				ContentAddressedClasspath.moveAtomically(trainingArchive, archive);
+			}
+			else {
+				Files.writeString(failed, trainingLog.toString());
+				logger.warn(LogMessage.format("Failed to create CDS archive %s, starting without it. See %s", archive,
+						trainingLog));
+			}
+		}
+		catch (IOException ex) {
+			markFailed(failed, ex);
+			logger.warn(LogMessage.format("Failed to create CDS archive %s, starting without it", archive), ex);
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+		finally {
+			deleteQuietly(trainingPortFile);
+		}
+	}
+
+	/**
+	 * Records that the training failed, so that it is not retried until the fingerprint
+	 * changes. Failing to record it only means that the training is retried.
+	 * @param failed the file that records the failure
+	 * @param failure the reason the training failed
+	 */
+	private static void markFailed(Path failed, IOException failure) {
+		try {
+			Files.writeString(failed, failure.toString());
+		}
+		catch (IOException ex) {
+			// ignore
+		}
+	}
+
+	private static void deleteQuietly(Path path) {
+		try {
+			Files.deleteIfExists(path);
+		}
+		catch (IOException ex) {
+			// ignore
+		}
+	}
+
+}
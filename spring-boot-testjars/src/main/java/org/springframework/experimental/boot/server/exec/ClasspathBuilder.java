@@ -20,7 +20,6 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class ClasspathBuilder {
 
@@ -52,8 +51,15 @@ public class ClasspathBuilder {
 	}
 
 	String build() {
-		return this.classpath.stream().flatMap((entry) -> entry.resolve().stream())
-				.collect(Collectors.joining(File.pathSeparator));
+		return String.join(File.pathSeparator, resolve());
+	}
+
+	/**
+	 * Resolves every {@link ClasspathEntry} in order.
+	 * @return the resolved classpath entries
+	 */
+	List<String> resolve() {
+		return this.classpath.stream().flatMap((entry) -> entry.resolve().stream()).toList();
 	}
 
 	void cleanup() {
@@ -17,19 +17,34 @@
 package org.springframework.experimental.boot.server.exec;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
-import java.nio.file.WatchService;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
 
 import org.apache.commons.exec.CommandLine;
 import org.apache.commons.exec.DefaultExecutor;
 import org.apache.commons.exec.ExecuteException;
 import org.apache.commons.exec.ExecuteResultHandler;
+import org.apache.commons.exec.PumpStreamHandler;
+import org.apache.commons.exec.StreamPumper;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.boot.web.server.WebServer;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.util.FileSystemUtils;
 
 /**
@@ -43,25 +58,76 @@ import org.springframework.util.FileSystemUtils;
  */
 public final class CommonsExecWebServer implements WebServer, InitializingBean, DisposableBean, AutoCloseable {
 
+	static final int DEFAULT_OUTPUT_TAIL_CAPACITY = 16 * 1024;
+
+	private static final long OUTPUT_FILE_POLL_INTERVAL_MILLIS = 50;
+
+	private static final SimpleAsyncTaskExecutor portFileExecutor = ExecThreads.executor("testjars-port-file-");
+
+	private static final SimpleAsyncTaskExecutor startExecutor = ExecThreads.executor("testjars-start-");
+
+	private static final ThreadFactory execThreadFactory = ExecThreads.platformThreadFactory("testjars-exec-");
+
+	private static final ThreadFactory outputThreadFactory = ExecThreads.platformThreadFactory("testjars-output-");
+
 	private final Log logger = LogFactory.getLog(getClass());
 
 	private final CommandLine commandLine;
 
 	private final File applicationPortFile;
 
-	private final Runnable cleanup;
+	private Runnable cleanup;
+
+	private final Duration startupTimeout;
+
+	private final ProcessLauncher processLauncher;
+
+	private final ApplicationPortFileWatcher applicationPortFileWatcher;
+
+	private final OutputTail outputTail;
 
-	private final WatchServiceExecuteResultHandler handler = new WatchServiceExecuteResultHandler();
+	private final CompletableFuture<Integer> boundPort = new CompletableFuture<>();
+
+	private final CompletableFuture<Integer> port = new CompletableFuture<>();
+
+	private final CompletableFuture<Integer> exitValue = new CompletableFuture<>();
 
 	private ProcessDestroyerBean processDestroyerBean = new ProcessDestroyerBean();
 
-	// FIXME: Concurrency issues
+	private OutputMatcher outputMatcher;
+
+	private ReadinessProbe readinessProbe;
+
+	private CommandLine launchCommandLine;
+
 	private boolean start;
 
-	CommonsExecWebServer(CommandLine commandLine, File applicationPortFile, Runnable cleanup) {
+	CommonsExecWebServer(CommandLine commandLine, File applicationPortFile, Runnable cleanup,
+			Duration startupTimeout) {
+		this(commandLine, applicationPortFile, cleanup, startupTimeout, null, DEFAULT_OUTPUT_TAIL_CAPACITY);
+	}
+
+	/**
+	 * Creates a new instance.
+	 * @param commandLine the command that runs the application
+	 * @param applicationPortFile the file the application writes its port to
+	 * @param cleanup invoked when the server is stopped
+	 * @param startupTimeout the maximum amount of time to wait for the port or
+	 * {@code null} to wait indefinitely
+	 * @param processLauncher launches the process instead of executing the
+	 * {@code commandLine} or {@code null} to execute the {@code commandLine}
+	 * @param outputTailCapacity the maximum number of bytes of output to keep
+	 */
+	CommonsExecWebServer(CommandLine commandLine, File applicationPortFile, Runnable cleanup,
+			Duration startupTimeout, ProcessLauncher processLauncher, int outputTailCapacity) {
 		this.commandLine = commandLine;
+		this.launchCommandLine = commandLine;
 		this.applicationPortFile = applicationPortFile;
 		this.cleanup = cleanup;
+		this.startupTimeout = startupTimeout;
+		this.processLauncher = processLauncher;
+		this.outputTail = new OutputTail(outputTailCapacity);
+		this.applicationPortFileWatcher = new ApplicationPortFileWatcher(applicationPortFile);
 	}
 
 	@Override
@@ -74,104 +140,476 @@ public final class CommonsExecWebServer implements WebServer, InitializingBean,
 		stop();
 	}
 
-	public void start() {
+	/**
+	 * Determines that the process is ready when any line of its output matches one of
+	 * the patterns rather than when it writes the port file. The port is the first
+	 * capture group of the pattern that matched or {@code -1} if it has no capture group.
+	 * @param patterns the patterns that indicate the process is ready
+	 */
+	synchronized void readyWhenOutputMatches(List<Pattern> patterns) {
+		if (this.start) {
+			throw new IllegalStateException("The readiness must be configured before the server is started");
+		}
+		this.outputMatcher = new OutputMatcher(patterns);
+	}
+
+	/**
+	 * Configures the server to be ready once the {@link ReadinessProbe} succeeds after
+	 * the port is known rather than as soon as the port is known. The startup timeout
+	 * applies to the probe separately.
+	 * @param readinessProbe the probe that determines if the application is ready
+	 */
+	synchronized void readinessProbe(ReadinessProbe readinessProbe) {
+		if (this.start) {
+			throw new IllegalStateException("The readiness must be configured before the server is started");
+		}
+		this.readinessProbe = readinessProbe;
+	}
+
+	/**
+	 * Adds a task that is run after the cleanup of the server once it is stopped (i.e.
+	 * its processes have exited) or detached.
+	 * @param cleanup the task to run
+	 */
+	synchronized void addCleanup(Runnable cleanup) {
+		if (this.start) {
+			throw new IllegalStateException("The cleanup must be added before the server is started");
+		}
+		Runnable previous = this.cleanup;
+		this.cleanup = () -> {
+			try {
+				previous.run();
+			}
+			finally {
+				cleanup.run();
+			}
+		};
+	}
+
+	/**
+	 * Sets how long to wait for the process and its descendants to exit when the server
+	 * is stopped before destroying them forcibly.
+	 * @param shutdownGracePeriod the amount of time to wait
+	 */
+	void shutdownGracePeriod(Duration shutdownGracePeriod) {
+		this.processDestroyerBean.setGracePeriod(shutdownGracePeriod);
+	}
+
+	/**
+	 * Executes a different command than the command that describes the server (e.g. one
+	 * that reads its arguments from an {@link ArgumentFile}) which must run the same
+	 * application.
+	 * @param launchCommandLine the command to execute
+	 */
+	synchronized void launchCommandLine(CommandLine launchCommandLine) {
+		if (this.start) {
+			throw new IllegalStateException("The command must be configured before the server is started");
+		}
+		this.launchCommandLine = launchCommandLine;
+	}
+
+	public synchronized void start() {
 		if (this.start) {
 			return;
 		}
 		this.start = true;
-		DefaultExecutor executor = new DefaultExecutor();
-		executor.setProcessDestroyer(this.processDestroyerBean);
+		this.boundPort.whenComplete(this::bound);
 		try {
-			if (this.logger.isDebugEnabled()) {
-				this.logger.debug("Executing command: " + this.commandLine);
+			if (this.processLauncher != null) {
+				launch();
+			}
+			else {
+				execute();
 			}
-			executor.execute(this.commandLine, null, this.handler);
 		}
 		catch (Exception ex) {
+			this.boundPort.completeExceptionally(ex);
 			throw new RuntimeException("Failed to run the command", ex);
 		}
+		portFileExecutor.execute((this.outputMatcher != null) ? this::watchOutput : this::watchApplicationPortFile);
 	}
 
-	void waitForServer() {
-		synchronized (this.handler.lock) {
+	/**
+	 * Starts the process without blocking the caller. This allows starting several
+	 * servers (e.g. combined with {@link CompletableFuture#allOf(CompletableFuture...)})
+	 * and preparing other test fixtures while the servers start.
+	 * @return a {@link CompletableFuture} that completes with this server once it is
+	 * ready or exceptionally if it fails to start (see {@link #getPort()})
+	 */
+	public CompletableFuture<CommonsExecWebServer> startAsync() {
+		return CompletableFuture.runAsync(this::start, startExecutor)
+				.thenCompose((started) -> readyAsync())
+				.thenApply((port) -> this);
+	}
+
+	/**
+	 * Gets the port without blocking the caller. The returned {@link CompletableFuture}
+	 * is completed by the process (e.g. when it writes its port or exits), so waiting on
+	 * it does not need a thread. Completing the returned {@link CompletableFuture} does
+	 * not affect the server.
+	 * @return a {@link CompletableFuture} that completes with the port the process is
+	 * listening on or exceptionally if it fails to start (see {@link #getPort()})
+	 */
+	public CompletableFuture<Integer> readyAsync() {
+		return this.port.copy();
+	}
+
+	private void execute() throws IOException {
+		DefaultExecutor executor = new DefaultExecutor() {
+
+			@Override
+			protected Thread createThread(Runnable runnable, String name) {
+				return execThreadFactory.newThread(runnable);
+			}
+
+		};
+		executor.setProcessDestroyer(this.processDestroyerBean);
+		executor.setStreamHandler(createStreamHandler());
+		if (this.logger.isDebugEnabled()) {
+			this.logger.debug("Executing command: " + this.launchCommandLine);
+		}
+		executor.execute(this.launchCommandLine, null, new ExitResultHandler());
+	}
+
+	/**
+	 * Launches the process using the {@link ProcessLauncher}. The output of the process
+	 * is handled the same way as when the command is executed by Commons Exec, unless it
+	 * is redirected to a file in which case no threads are needed to read it.
+	 * @throws IOException if the process cannot be launched
+	 */
+	private void launch() throws IOException {
+		if (this.logger.isDebugEnabled()) {
+			this.logger.debug("Launching command: " + this.commandLine);
+		}
+		Process process = this.processLauncher.launch();
+		this.processDestroyerBean.add(process, !this.processLauncher.outlivesOwner());
+		File outputFile = this.processLauncher.getOutputFile();
+		if (outputFile != null) {
+			CompletableFuture<Void> followed = (this.outputMatcher != null)
+					? CompletableFuture.runAsync(() -> followOutputFile(outputFile, process), portFileExecutor)
+					: CompletableFuture.completedFuture(null);
+			process.onExit().thenCombine(followed, (exited, ignored) -> exited).thenAccept((exited) -> {
+				this.processDestroyerBean.remove(exited);
+				exited(exited.exitValue(), null);
+			});
+			return;
+		}
+		PumpStreamHandler streamHandler = createStreamHandler();
+		streamHandler.setProcessOutputStream(process.getInputStream());
+		streamHandler.setProcessErrorStream(process.getErrorStream());
+		streamHandler.start();
+		process.onExit().thenAccept((exited) -> {
 			try {
-				this.handler.lock.wait();
+				streamHandler.stop();
 			}
-			catch (InterruptedException ex) {
-				throw new RuntimeException(ex);
+			catch (IOException ex) {
+				// the output has already been pumped as far as possible
 			}
+			this.processDestroyerBean.remove(exited);
+			exited(exited.exitValue(), null);
+		});
+	}
+
+	private PumpStreamHandler createStreamHandler() {
+		OutputStream out = this.outputTail.tee(System.out);
+		OutputStream err = this.outputTail.tee(System.err);
+		if (this.outputMatcher != null) {
+			out = this.outputMatcher.tee(out);
+			err = this.outputMatcher.tee(err);
 		}
+		return new PumpStreamHandler(out, err) {
+
+			@Override
+			protected Thread createPump(InputStream is, OutputStream os, boolean closeWhenExhausted) {
+				return outputThreadFactory.newThread(new StreamPumper(is, os, closeWhenExhausted));
+			}
+
+		};
 	}
 
-	public void stop() {
-		this.processDestroyerBean.destroyAll();
-		this.cleanup.run();
-		FileSystemUtils.deleteRecursively(this.applicationPortFile);
+	private void watchApplicationPortFile() {
+		try {
+			this.boundPort.complete(this.applicationPortFileWatcher.getApplicationPort(this.startupTimeout));
+		}
+		catch (InterruptedException ex) {
+			// the process exited and completed the port exceptionally
+		}
+		catch (TimeoutException ex) {
+			stalled(ex);
+		}
+		catch (RuntimeException ex) {
+			this.boundPort.completeExceptionally(ex);
+		}
 	}
 
-	public int getPort() {
-		ApplicationPortFileWatcher applicationPortFileWatcher = new ApplicationPortFileWatcher(this.applicationPortFile,
-				this.handler::watchService);
+	/**
+	 * Invoked once the port is known (e.g. it was written to the port file). The server
+	 * is ready immediately unless a {@link ReadinessProbe} is configured, in which case
+	 * it is ready once the probe succeeds. Probing stops once the server is no longer
+	 * waiting to be ready (e.g. because the process exited).
+	 * @param boundPort the port or {@code null} if it is not known
+	 * @param failure the reason the port is not known or {@code null}
+	 */
+	private void bound(Integer boundPort, Throwable failure) {
+		if (failure != null || this.readinessProbe == null) {
+			complete(this.port, boundPort, failure);
+			return;
+		}
+		CompletableFuture<Integer> probed = this.readinessProbe.probe(boundPort, this.startupTimeout);
+		this.port.whenComplete((port, ex) -> probed.cancel(false));
+		probed.whenComplete((port, ex) -> {
+			if (ex instanceof TimeoutException timeout) {
+				stalled(timeout);
+			}
+			else if (!(ex instanceof CancellationException)) {
+				complete(this.port, port, ex);
+			}
+		});
+	}
+
+	private static void complete(CompletableFuture<Integer> future, Integer value, Throwable failure) {
+		if (failure != null) {
+			future.completeExceptionally(failure);
+		}
+		else {
+			future.complete(value);
+		}
+	}
+
+	/**
+	 * Waits for the output of the process to match.
+	 */
+	private void watchOutput() {
+		CompletableFuture<Integer> ready = this.outputMatcher.getPort();
 		try {
-			return applicationPortFileWatcher.getApplicationPort();
+			this.boundPort.complete((this.startupTimeout != null)
+					? ready.get(this.startupTimeout.toMillis(), TimeUnit.MILLISECONDS) : ready.get());
 		}
 		catch (InterruptedException ex) {
-			throw new RuntimeException("Failed to get port " + this.handler.failure, ex);
+			Thread.currentThread().interrupt();
+		}
+		catch (TimeoutException ex) {
+			stalled(new TimeoutException("The output did not match " + this.outputMatcher.getPatterns() + " within "
+					+ this.startupTimeout));
+		}
+		catch (ExecutionException ex) {
+			// the group is not a port or the process exited, which already completed the port
+			this.boundPort.completeExceptionally(ex.getCause());
 		}
 	}
 
-	CommandLine getCommandLine() {
-		return this.commandLine;
+	/**
+	 * Matches the output that is redirected to a file as it is written, since it is not
+	 * pumped through the current JVM. The file is followed until the output matches or
+	 * all of the output of the process has been read after it exited.
+	 * @param outputFile the file the output is redirected to
+	 * @param process the process that writes to the file
+	 */
+	private void followOutputFile(File outputFile, Process process) {
+		byte[] buffer = new byte[8 * 1024];
+		try (InputStream output = new FileInputStream(outputFile);
+				OutputStream matcher = this.outputMatcher.tee(OutputStream.nullOutputStream())) {
+			while (!this.outputMatcher.getPort().isDone()) {
+				boolean alive = process.isAlive();
+				int read = output.read(buffer);
+				if (read > 0) {
+					matcher.write(buffer, 0, read);
+				}
+				else if (!alive) {
+					return;
+				}
+				else {
+					Thread.sleep(OUTPUT_FILE_POLL_INTERVAL_MILLIS);
+				}
+			}
+		}
+		catch (IOException ex) {
+			this.outputMatcher.getPort().completeExceptionally(ex);
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
 	}
 
-	@Override
-	public void close() throws Exception {
-		stop();
+	/**
+	 * Invoked when the port is not written within the startup timeout. A thread dump of
+	 * the process is captured before it is destroyed, so that the failure shows what was
+	 * blocking the startup along with the last output of the process.
+	 * @param timeout the {@link TimeoutException} that was thrown
+	 */
+	private void stalled(TimeoutException timeout) {
+		StringBuilder message = new StringBuilder(timeout.getMessage());
+		for (Process process : this.processDestroyerBean.getProcesses()) {
+			message.append(". Thread dump of process ").append(process.pid()).append(":\n");
+			message.append(ThreadDump.capture(this.commandLine.getExecutable(), process.pid()));
+		}
+		message.append("\n").append(describeOutputTail());
+		this.port.completeExceptionally(new IllegalStateException(message.toString(), timeout));
+		this.processDestroyerBean.destroyAll();
 	}
 
-	private static class WatchServiceExecuteResultHandler implements ExecuteResultHandler {
+	/**
+	 * Invoked when the process exits. If the port has not been written yet, the port is
+	 * completed exceptionally so that anyone waiting on it fails immediately rather than
+	 * waiting for a port that will never be written.
+	 * @param exitValue the exit value of the process
+	 * @param failure the failure reported when the process exited or {@code null}
+	 */
+	private void exited(int exitValue, ExecuteException failure) {
+		if (this.outputMatcher != null) {
+			CompletableFuture<Integer> ready = this.outputMatcher.getPort();
+			if (ready.isDone() && !ready.isCompletedExceptionally()) {
+				this.boundPort.complete(ready.join());
+			}
+		}
+		else {
+			try {
+				Integer port = this.applicationPortFileWatcher.readPort();
+				if (port != null) {
+					this.boundPort.complete(port);
+				}
+			}
+			catch (IOException | RuntimeException ex) {
+				// the port file was not written
+			}
+		}
+		IllegalStateException exited = new IllegalStateException("The process exited with code " + exitValue
+				+ " before " + describeReadiness() + ". " + describeOutputTail(), failure);
+		this.boundPort.completeExceptionally(exited);
+		this.port.completeExceptionally(exited);
+		if (this.outputMatcher != null) {
+			this.outputMatcher.stop();
+		}
+		this.applicationPortFileWatcher.close();
+		this.exitValue.complete(exitValue);
+	}
 
-		private WatchService watchService;
+	/**
+	 * Describes what the process must do to be ready for a failure message.
+	 * @return the description of the readiness
+	 */
+	private String describeReadiness() {
+		if (this.readinessProbe != null && this.boundPort.isDone() && !this.boundPort.isCompletedExceptionally()) {
+			return this.readinessProbe.getUri(this.boundPort.join()) + " responded with a 2xx status";
+		}
+		if (this.outputMatcher != null) {
+			return "its output matched " + this.outputMatcher.getPatterns();
+		}
+		return "writing the port to " + this.applicationPortFile;
+	}
 
-		private ExecuteException failure;
+	/**
+	 * Describes the last output of the process for a failure message.
+	 * @return the description of the last output
+	 */
+	private String describeOutputTail() {
+		File outputFile = getOutputFile();
+		String source = (outputFile != null) ? " of " + outputFile : "";
+		return "The last output" + source + " was:\n" + getOutputTail();
+	}
 
-		private Object lock = new Object();
+	private File getOutputFile() {
+		return (this.processLauncher != null) ? this.processLauncher.getOutputFile() : null;
+	}
 
-		synchronized void watchService(WatchService watchService) {
-			if (this.failure != null) {
-				throw new IllegalStateException("The server failed to start ", this.failure);
+	/**
+	 * Gets the last output (standard output and standard error) of the process. Only the
+	 * last bytes of the output are kept (16 KB by default), so the memory that is used
+	 * does not grow with the amount of output. The output of a process that is kept alive
+	 * is read from its log file, which also contains the output of earlier test runs.
+	 * @return the last output of the process
+	 */
+	public String getOutputTail() {
+		File outputFile = getOutputFile();
+		if (outputFile != null) {
+			try {
+				this.outputTail.readFrom(outputFile);
+			}
+			catch (IOException ex) {
+				// return the output that was read before
 			}
-			this.watchService = watchService;
 		}
+		return this.outputTail.toString();
+	}
 
-		@Override
-		public synchronized void onProcessComplete(int exitValue) {
-			completed();
-			closeWatchService();
-		}
+	void waitForServer() {
+		this.exitValue.join();
+	}
 
-		@Override
-		public synchronized void onProcessFailed(ExecuteException ex) {
-			completed();
-			this.failure = ex;
-			closeWatchService();
+	/**
+	 * Determines if the process has exited.
+	 * @return true if the process was started and has exited, else false
+	 */
+	boolean hasExited() {
+		return this.exitValue.isDone();
+	}
+
+	/**
+	 * Stops the process along with its descendants and waits for them to exit, so that
+	 * the files they use are only deleted once they are no longer used. The processes
+	 * that do not exit within the shutdown grace period are destroyed forcibly.
+	 */
+	public void stop() {
+		this.processDestroyerBean.destroyAll().join();
+		this.applicationPortFileWatcher.close();
+		if (this.outputMatcher != null) {
+			this.outputMatcher.stop();
 		}
+		this.cleanup.run();
+		FileSystemUtils.deleteRecursively(this.applicationPortFile);
+	}
+
+	/**
+	 * Stops tracking the process without destroying it, so that it keeps running after
+	 * this server is no longer used.
+	 */
+	void detach() {
+		this.processDestroyerBean.getProcesses().forEach(this.processDestroyerBean::remove);
+		this.applicationPortFileWatcher.close();
+		this.cleanup.run();
+	}
 
-		private void completed() {
-			synchronized (this.lock) {
-				this.lock.notifyAll();
+	/**
+	 * Blocks until the port has been written by the process. If the process exits before
+	 * writing the port, then an exception containing the exit value and the last output
+	 * of the process is thrown immediately. If the port is not written within the startup
+	 * timeout, then an exception containing a thread dump of the process is thrown. Use
+	 * {@link #readyAsync()} to wait for the port without blocking.
+	 * @return the port the process is listening on
+	 */
+	public int getPort() {
+		synchronized (this) {
+			if (!this.start) {
+				throw new IllegalStateException("The server must be started before getting the port");
 			}
 		}
+		try {
+			return this.port.join();
+		}
+		catch (CompletionException ex) {
+			throw new RuntimeException("Failed to get port", ex.getCause());
+		}
+	}
 
-		private void closeWatchService() {
-			if (this.watchService != null) {
-				try {
-					this.watchService.close();
-				}
-				catch (IOException ex) {
-					throw new RuntimeException("Failed to close WatchService", ex);
-				}
-			}
+	CommandLine getCommandLine() {
+		return this.commandLine;
+	}
+
+	@Override
+	public void close() throws Exception {
+		stop();
+	}
+
+	private final class ExitResultHandler implements ExecuteResultHandler {
+
+		@Override
+		public void onProcessComplete(int exitValue) {
+			exited(exitValue, null);
+		}
+
+		@Override
+		public void onProcessFailed(ExecuteException ex) {
+			exited(ex.getExitValue(), ex);
 		}
 
 	}
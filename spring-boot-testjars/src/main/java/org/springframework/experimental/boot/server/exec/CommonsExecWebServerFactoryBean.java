@@ -18,76 +18,142 @@ package org.springframework.experimental.boot.server.exec;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
+import java.util.regex.Pattern;
 
 import org.apache.commons.exec.CommandLine;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
 import org.springframework.beans.factory.BeanNameAware;
 import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ListableBeanFactory;
 import org.springframework.beans.factory.SmartFactoryBean;
 import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.log.LogMessage;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.experimental.boot.server.exec.detector.KeepAliveMain;
+import org.springframework.experimental.boot.server.exec.detector.ParentWatchdogMain;
 import org.springframework.experimental.boot.server.exec.imports.GenericSpringBootApplicationMain;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
+import org.springframework.util.FileSystemUtils;
 import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
 
 /**
  * Creates a {@link CommonsExecWebServer}. If the resource
  * webjars/$beanName/application.yml or webjars/$beanName/application.properties exists,
  * then it is automatically added to the classpath as application.yml and
  * application.properties respectively.
+ * <p>
+ * When used within a {@link ListableBeanFactory}, all of the
+ * {@link CommonsExecWebServerFactoryBean} instances in the factory are launched
+ * concurrently the first time any of their servers is requested. When the
+ * {@link org.springframework.context.ApplicationContext} is closed, their servers are
+ * stopped concurrently once every other {@link SmartLifecycle} has been stopped.
  *
  * @author Rob Winch
  * @author Daniel Garnier-Moiroux
  */
-public class CommonsExecWebServerFactoryBean
-		implements SmartFactoryBean<CommonsExecWebServer>, DisposableBean, BeanNameAware, SmartInitializingSingleton {
+public class CommonsExecWebServerFactoryBean implements SmartFactoryBean<CommonsExecWebServer>, DisposableBean,
+		BeanNameAware, BeanFactoryAware, SmartInitializingSingleton, SmartLifecycle {
 
 	private static Log logger = LogFactory.getLog(CommonsExecWebServerFactoryBean.class);
 
 	private static final String GENERIC_SPRING_BOOT_MAIN_CLASSNAME = GenericSpringBootApplicationMain.class.getName();
 
+	private static final SimpleAsyncTaskExecutor stopExecutor = ExecThreads.executor("testjars-stop-");
+
 	private String executable = currentJavaExecutable();
 
 	private ClasspathBuilder classpath = new ClasspathBuilder();
 
 	private Map<String, String> systemProperties = new HashMap<>();
 
+	private JvmProfile jvmProfile = JvmProfile.DEFAULT;
+
+	private List<String> jvmOptions = new ArrayList<>();
+
 	private String mainClass = "org.springframework.experimental.boot.server.exec.detector.SpringBootFatJarMain";
 
-	private File applicationPortFile = createApplicationPortFile();
+	private File applicationPortFile = TempDir.portFile();
 
 	private CommonsExecWebServer webServer;
 
 	private final DebugSettings debugSettings = new DebugSettings();
 
+	private final ClassDataSharingSettings classDataSharingSettings = new ClassDataSharingSettings();
+
+	private final AotCacheSettings aotCacheSettings = new AotCacheSettings();
+
+	private final LauncherPoolSettings launcherPoolSettings = new LauncherPoolSettings();
+
+	private final KeepAliveSettings keepAliveSettings = new KeepAliveSettings();
+
+	private final InProcessSettings inProcessSettings = new InProcessSettings();
+
+	private final RedirectOutputSettings redirectOutputSettings = new RedirectOutputSettings();
+
+	private final ArgumentFileSettings argumentFileSettings = new ArgumentFileSettings();
+
+	private final PathingJarSettings pathingJarSettings = new PathingJarSettings();
+
+	private final ReadinessSettings readinessSettings = new ReadinessSettings();
+
+	private final MemoryBudgetSettings memoryBudgetSettings = new MemoryBudgetSettings();
+
+	private final CpuPartitionSettings cpuPartitionSettings = new CpuPartitionSettings();
+
 	private boolean useRandomPort = true;
 
+	private boolean shared;
+
+	private boolean deferReadiness;
+
+	private Duration startupTimeout;
+
+	private Duration shutdownGracePeriod = ProcessDestroyerBean.DEFAULT_GRACE_PERIOD;
+
+	private DataSize outputTailSize = DataSize.ofBytes(CommonsExecWebServer.DEFAULT_OUTPUT_TAIL_CAPACITY);
+
+	private List<Pattern> readyPatterns;
+
+	private String beanName;
+
+	private BeanFactory beanFactory;
+
+	private WebServerLaunchCoordinator launchCoordinator;
+
+	private KeepAlive keepAlive;
+
 	CommonsExecWebServerFactoryBean() {
 		Class<?> jarDetector = ClassUtils.resolveClassName(this.mainClass, null);
 		this.classpath.entries(new ResourceClasspathEntry(
 				"org/springframework/experimental/boot/testjars/classpath-entries/META-INF/spring.factories",
 				"META-INF/spring.factories"), new ScanningClasspathEntry(jarDetector));
+		OrphanReaper.INSTANCE.sweepInBackground();
 	}
 
 	public static CommonsExecWebServerFactoryBean builder() {
 		return new CommonsExecWebServerFactoryBean();
 	}
 
-	private static File createApplicationPortFile() {
-		try {
-			// FIXME: Review if we have a temp file CVE here
-			return File.createTempFile("application-", ".port");
-		}
-		catch (IOException ex) {
-			throw new RuntimeException(ex);
-		}
-	}
-
 	public CommonsExecWebServerFactoryBean useGenericSpringBootMain() {
 		mainClass(GENERIC_SPRING_BOOT_MAIN_CLASSNAME);
 		Class<?> mainClass = ClassUtils.resolveClassName(GENERIC_SPRING_BOOT_MAIN_CLASSNAME, null);
@@ -128,11 +194,125 @@ public class CommonsExecWebServerFactoryBean
 		return this;
 	}
 
+	/**
+	 * Sets if the server should be shared with every other
+	 * {@link CommonsExecWebServerFactoryBean} in the JVM that builds an identical command
+	 * (e.g. the same Bean in multiple cached test {@code ApplicationContext}s). A shared
+	 * server is stopped when the last {@link CommonsExecWebServerFactoryBean} that uses it
+	 * is destroyed.
+	 * @param shared true if the server should be shared, else false (default).
+	 * @return the {@link CommonsExecWebServerFactoryBean} for customization.
+	 */
+	public CommonsExecWebServerFactoryBean shared(boolean shared) {
+		this.shared = shared;
+		return this;
+	}
+
+	/**
+	 * Sets if the {@code ApplicationContext} startup should only launch the server rather
+	 * than also wait for it to be ready. The readiness is then awaited when the server is
+	 * first used (e.g. when a {@code @DynamicProperty} or {@code @DynamicPortUrl} that
+	 * refers to it is read or {@link CommonsExecWebServer#getPort()} is invoked), so
+	 * tests only wait for the servers they use. A server that fails to start then fails the
+	 * test that uses it rather than the {@code ApplicationContext} startup.
+	 * @param deferReadiness true if waiting for the server to be ready should be
+	 * deferred until it is used, else false (default).
+	 * @return the {@link CommonsExecWebServerFactoryBean} for customization.
+	 */
+	public CommonsExecWebServerFactoryBean deferReadiness(boolean deferReadiness) {
+		this.deferReadiness = deferReadiness;
+		return this;
+	}
+
+	/**
+	 * Sets the maximum amount of time to wait for the application to write its port. If
+	 * the timeout elapses, a thread dump of the application is captured and included in
+	 * the failure before the application is destroyed.
+	 * @param startupTimeout the maximum amount of time to wait or {@code null} (default)
+	 * to wait indefinitely.
+	 * @return the {@link CommonsExecWebServerFactoryBean} for customization.
+	 */
+	public CommonsExecWebServerFactoryBean startupTimeout(Duration startupTimeout) {
+		this.startupTimeout = startupTimeout;
+		return this;
+	}
+
+	/**
+	 * Sets how long to wait for the application and the processes it started to exit
+	 * when the server is stopped. The processes that have not exited after the grace
+	 * period are destroyed forcibly.
+	 * @param shutdownGracePeriod the amount of time to wait (default is 10 seconds).
+	 * @return the {@link CommonsExecWebServerFactoryBean} for customization.
+	 */
+	public CommonsExecWebServerFactoryBean shutdownGracePeriod(Duration shutdownGracePeriod) {
+		Assert.notNull(shutdownGracePeriod, "shutdownGracePeriod cannot be null");
+		Assert.isTrue(!shutdownGracePeriod.isNegative(), "shutdownGracePeriod cannot be negative");
+		this.shutdownGracePeriod = shutdownGracePeriod;
+		return this;
+	}
+
+	/**
+	 * Sets how much of the most recent output of the application is kept in memory. The
+	 * output is kept in a fixed size buffer outside of the heap, is included in the
+	 * failure if the application does not start, and is available from
+	 * {@link CommonsExecWebServer#getOutputTail()}.
+	 * @param outputTailSize the amount of output to keep (default is 16 KB).
+	 * @return the {@link CommonsExecWebServerFactoryBean} for customization.
+	 */
+	public CommonsExecWebServerFactoryBean outputTailSize(DataSize outputTailSize) {
+		Assert.notNull(outputTailSize, "outputTailSize cannot be null");
+		Assert.isTrue(outputTailSize.toBytes() > 0 && outputTailSize.toBytes() <= Integer.MAX_VALUE,
+				"outputTailSize must be greater than 0 and less than 2 GB");
+		this.outputTailSize = outputTailSize;
+		return this;
+	}
+
+	/**
+	 * Determines that the application is ready when a line of its output matches any of
+	 * the provided regular expressions rather than when it writes its port. This allows
+	 * using applications that do not use testjars to write their port. If the pattern
+	 * that matched has a capture group, the first group is used as the port. Otherwise,
+	 * the port is {@code -1}. The output is matched as it is read without keeping the
+	 * lines in memory.
+	 * @param patterns the regular expressions (e.g. {@code "Tomcat started on port (\\d+)"})
+	 * @return the {@link CommonsExecWebServerFactoryBean} for customization.
+	 */
+	public CommonsExecWebServerFactoryBean readyWhenOutputMatches(String... patterns) {
+		Assert.notEmpty(patterns, "patterns cannot be empty");
+		this.readyPatterns = Arrays.stream(patterns).map(Pattern::compile).toList();
+		return this;
+	}
+
 	public CommonsExecWebServerFactoryBean systemProperties(Consumer<Map<String, String>> systemProperties) {
 		systemProperties.accept(this.systemProperties);
 		return this;
 	}
 
+	/**
+	 * Sets the {@link JvmProfile} that provides the JVM options that are used to launch
+	 * the application.
+	 * @param jvmProfile the {@link JvmProfile} to use (default is
+	 * {@link JvmProfile#DEFAULT}).
+	 * @return the {@link CommonsExecWebServerFactoryBean} for customization.
+	 */
+	public CommonsExecWebServerFactoryBean jvmProfile(JvmProfile jvmProfile) {
+		Assert.notNull(jvmProfile, "jvmProfile cannot be null");
+		this.jvmProfile = jvmProfile;
+		return this;
+	}
+
+	/**
+	 * Customizes the JVM options (e.g. {@code -Xmx256m}) that are used to launch the
+	 * application. The options are added after the options of the {@link JvmProfile}, so
+	 * they take precedence over them.
+	 * @param jvmOptions a {@link Consumer} of the JVM options.
+	 * @return the {@link CommonsExecWebServerFactoryBean} for customization.
+	 */
+	public CommonsExecWebServerFactoryBean jvmOptions(Consumer<List<String>> jvmOptions) {
+		jvmOptions.accept(this.jvmOptions);
+		return this;
+	}
+
 	/**
 	 * If set, will start up in debug mode using the provided settings.
 	 * @param debugSettings the settings to use.
@@ -143,33 +323,440 @@ public class CommonsExecWebServerFactoryBean
 		return this;
 	}
 
+	/**
+	 * Configures Class Data Sharing (CDS) to improve the startup time of the application.
+	 * @param classDataSharingSettings the settings to use.
+	 * @return the {@link CommonsExecWebServerFactoryBean} for customization.
+	 */
+	public CommonsExecWebServerFactoryBean classDataSharing(
+			Consumer<ClassDataSharingSettings> classDataSharingSettings) {
+		classDataSharingSettings.accept(this.classDataSharingSettings);
+		return this;
+	}
+
+	/**
+	 * Configures a JDK AOT cache to improve the startup time of the application. The AOT
+	 * cache requires JDK 24+. If the java executable does not support it, then CDS is
+	 * used if it is enabled.
+	 * @param aotCacheSettings the settings to use.
+	 * @return the {@link CommonsExecWebServerFactoryBean} for customization.
+	 */
+	public CommonsExecWebServerFactoryBean aotCache(Consumer<AotCacheSettings> aotCacheSettings) {
+		aotCacheSettings.accept(this.aotCacheSettings);
+		return this;
+	}
+
+	/**
+	 * Configures a pool of JVMs that are started ahead of time and wait for the
+	 * application to run, so that the application does not need to wait for the JVM to
+	 * start.
+	 * @param launcherPoolSettings the settings to use.
+	 * @return the {@link CommonsExecWebServerFactoryBean} for customization.
+	 */
+	public CommonsExecWebServerFactoryBean launcherPool(Consumer<LauncherPoolSettings> launcherPoolSettings) {
+		launcherPoolSettings.accept(this.launcherPoolSettings);
+		return this;
+	}
+
+	/**
+	 * Configures keeping the application alive after the JVM that launched it exits, so
+	 * that later test runs that need an identical application attach to it rather than
+	 * launching a new one.
+	 * @param keepAliveSettings the settings to use.
+	 * @return the {@link CommonsExecWebServerFactoryBean} for customization.
+	 */
+	public CommonsExecWebServerFactoryBean keepAlive(Consumer<KeepAliveSettings> keepAliveSettings) {
+		keepAliveSettings.accept(this.keepAliveSettings);
+		return this;
+	}
+
+	/**
+	 * Configures redirecting the output of the application to a file instead of copying
+	 * it to the output of the current JVM.
+	 * @param redirectOutputSettings the settings to use.
+	 * @return the {@link CommonsExecWebServerFactoryBean} for customization.
+	 */
+	public CommonsExecWebServerFactoryBean redirectOutput(Consumer<RedirectOutputSettings> redirectOutputSettings) {
+		redirectOutputSettings.accept(this.redirectOutputSettings);
+		return this;
+	}
+
+	/**
+	 * Configures running the application inside the current JVM using an isolated class
+	 * loader instead of in a new JVM.
+	 * @param inProcessSettings the settings to use.
+	 * @return the {@link CommonsExecWebServerFactoryBean} for customization.
+	 */
+	public CommonsExecWebServerFactoryBean inProcess(Consumer<InProcessSettings> inProcessSettings) {
+		inProcessSettings.accept(this.inProcessSettings);
+		return this;
+	}
+
+	/**
+	 * Configures launching the application with its arguments in a command line argument
+	 * file instead of on the command line.
+	 * @param argumentFileSettings the settings to use.
+	 * @return the {@link CommonsExecWebServerFactoryBean} for customization.
+	 */
+	public CommonsExecWebServerFactoryBean argumentFile(Consumer<ArgumentFileSettings> argumentFileSettings) {
+		argumentFileSettings.accept(this.argumentFileSettings);
+		return this;
+	}
+
+	/**
+	 * Configures launching the application with a pathing jar that lists the classpath
+	 * in its manifest instead of passing the classpath on the command line.
+	 * @param pathingJarSettings the settings to use.
+	 * @return the {@link CommonsExecWebServerFactoryBean} for customization.
+	 */
+	public CommonsExecWebServerFactoryBean pathingJar(Consumer<PathingJarSettings> pathingJarSettings) {
+		pathingJarSettings.accept(this.pathingJarSettings);
+		return this;
+	}
+
+	/**
+	 * Configures probing an HTTP path of the application once its port is known, so that
+	 * the application is only ready once it is able to serve requests.
+	 * @param readinessSettings the settings to use.
+	 * @return the {@link CommonsExecWebServerFactoryBean} for customization.
+	 */
+	public CommonsExecWebServerFactoryBean readiness(Consumer<ReadinessSettings> readinessSettings) {
+		readinessSettings.accept(this.readinessSettings);
+		return this;
+	}
+
+	/**
+	 * Configures a budget of memory that is shared by the applications that are launched
+	 * by the current JVM, so that launching many applications does not overcommit the
+	 * memory of the host.
+	 * @param memoryBudgetSettings the settings to use.
+	 * @return the {@link CommonsExecWebServerFactoryBean} for customization.
+	 */
+	public CommonsExecWebServerFactoryBean memoryBudget(Consumer<MemoryBudgetSettings> memoryBudgetSettings) {
+		memoryBudgetSettings.accept(this.memoryBudgetSettings);
+		return this;
+	}
+
+	/**
+	 * Configures the number of CPUs the application uses and if it is pinned to CPUs that
+	 * no other application that is launched by the current JVM uses, so that running many
+	 * applications at once does not oversubscribe the CPUs of the host.
+	 * @param cpuPartitionSettings the settings to use.
+	 * @return the {@link CommonsExecWebServerFactoryBean} for customization.
+	 */
+	public CommonsExecWebServerFactoryBean cpuPartition(Consumer<CpuPartitionSettings> cpuPartitionSettings) {
+		cpuPartitionSettings.accept(this.cpuPartitionSettings);
+		return this;
+	}
+
 	@Override
 	public boolean isEagerInit() {
 		return true;
 	}
 
 	private CommonsExecWebServer build() {
-		CommandLine commandLine = new CommandLine(this.executable);
+		List<String> jvmOptions = createJvmOptions();
+		List<String> jvmArguments = createJvmArguments(jvmOptions);
+		if (this.readyPatterns != null) {
+			Assert.state(!this.inProcessSettings.enabled && !this.keepAliveSettings.enabled,
+					"readyWhenOutputMatches cannot be used with inProcess or keepAlive");
+		}
+		List<String> classpath = this.classpath.resolve();
+		if (this.inProcessSettings.enabled) {
+			return buildInProcess(jvmArguments, classpath);
+		}
+		ResidentLauncherPool launcherPool = getLauncherPool(jvmOptions);
+		StartupCache startupCache = (launcherPool != null) ? null : createStartupCache(jvmOptions);
+		if (startupCache != null) {
+			List<String> cacheClasspath = startupCache.classpath(classpath);
+			jvmArguments.addAll(startupCache.jvmArguments(cacheClasspath, (overrides) -> createApplicationArgs(
+					createLaunchClasspath(cacheClasspath), overrides, this.mainClass)));
+			classpath = cacheClasspath;
+		}
+		if (this.keepAliveSettings.enabled) {
+			return buildKeepAlive(jvmArguments, classpath);
+		}
+		CommandLine commandLine = createCommandLine(jvmArguments,
+				createApplicationArgs(classpath, Map.of(), this.mainClass));
+		if (launcherPool != null) {
+			List<String> launchClasspath = classpath;
+			Map<String, String> systemProperties = createSystemProperties(Map.of());
+			ProcessLauncher processLauncher = () -> launcherPool.launch(launchClasspath, this.mainClass,
+					systemProperties);
+			return new CommonsExecWebServer(commandLine, this.applicationPortFile, () -> this.classpath.cleanup(),
+					this.startupTimeout, processLauncher, getOutputTailCapacity());
+		}
+		CpuPartitions.Partition partition = reserveCpus();
+		try {
+			CommandLine launchCommandLine = partition.pin(createLaunchCommandLine(commandLine));
+			ProcessLauncher processLauncher = (this.redirectOutputSettings.enabled)
+					? new RedirectingProcessLauncher(launchCommandLine, createOutputFile()) : null;
+			CommonsExecWebServer webServer = new CommonsExecWebServer(commandLine, this.applicationPortFile,
+					() -> this.classpath.cleanup(), this.startupTimeout, processLauncher, getOutputTailCapacity());
+			webServer.launchCommandLine(launchCommandLine);
+			webServer.addCleanup(partition::release);
+			return webServer;
+		}
+		catch (RuntimeException ex) {
+			partition.release();
+			throw ex;
+		}
+	}
+
+	private List<String> createJvmArguments(List<String> jvmOptions) {
+		List<String> jvmArguments = new ArrayList<>();
 		if (this.debugSettings.enabled) {
 			String s = (this.debugSettings.suspend) ? "y" : "n";
-			commandLine.addArgument("-agentlib:jdwp=transport=dt_socket,server=y,suspend=" + s + ",address=*:"
+			jvmArguments.add("-agentlib:jdwp=transport=dt_socket,server=y,suspend=" + s + ",address=*:"
 					+ this.debugSettings.port);
 		}
-		commandLine.addArguments(createSystemPropertyArgs(), false);
-		commandLine.addArgument("-classpath", false);
-		commandLine.addArgument(this.classpath.build(), false);
-		commandLine.addArgument(this.mainClass);
-		return new CommonsExecWebServer(commandLine, this.applicationPortFile, () -> this.classpath.cleanup());
+		jvmArguments.addAll(jvmOptions);
+		return jvmArguments;
+	}
+
+	/**
+	 * Reserves the CPUs that the application is pinned to. The application is only
+	 * pinned if it is launched directly (i.e. not by the launcher pool or kept alive).
+	 * @return the {@link CpuPartitions.Partition} which has no CPUs if the application is
+	 * not pinned
+	 */
+	private CpuPartitions.Partition reserveCpus() {
+		if (!this.cpuPartitionSettings.enabled || !this.cpuPartitionSettings.affinity) {
+			return CpuPartitions.NONE;
+		}
+		if (!CpuPartitions.isAffinitySupported()) {
+			logger.debug("Not pinning the application to CPUs since taskset is not available");
+			return CpuPartitions.NONE;
+		}
+		return CpuPartitions.INSTANCE.reserve(this.cpuPartitionSettings.processors);
+	}
+
+	/**
+	 * Creates the command that is executed to launch the application. The command that
+	 * describes the application (e.g. to share it) keeps all of its arguments and its
+	 * full classpath.
+	 * @param commandLine the command that describes the application
+	 * @return the command to execute
+	 */
+	private CommandLine createLaunchCommandLine(CommandLine commandLine) {
+		CommandLine launchCommandLine = commandLine;
+		if (this.pathingJarSettings.enabled) {
+			String[] arguments = commandLine.getArguments();
+			launchCommandLine = new CommandLine(commandLine.getExecutable());
+			for (int i = 0; i < arguments.length; i++) {
+				launchCommandLine.addArgument(arguments[i], false);
+				if (arguments[i].equals("-classpath") && i + 1 < arguments.length) {
+					List<String> classpath = Arrays.asList(arguments[++i].split(File.pathSeparator));
+					launchCommandLine.addArgument(String.join(File.pathSeparator, createLaunchClasspath(classpath)),
+							false);
+				}
+			}
+		}
+		if (this.argumentFileSettings.enabled) {
+			launchCommandLine = ArgumentFile.create(launchCommandLine, this.argumentFileSettings.directory);
+		}
+		return launchCommandLine;
+	}
+
+	/**
+	 * Gets the classpath that the application is launched with. The pathing jar
+	 * references content addressed jars rather than the directories with a random name
+	 * created by testjars, so that an identical classpath reuses the same pathing jar.
+	 * @param classpath the resolved classpath entries
+	 * @return the classpath entries or a pathing jar that references them
+	 */
+	private List<String> createLaunchClasspath(List<String> classpath) {
+		if (!this.pathingJarSettings.enabled) {
+			return classpath;
+		}
+		Path directory = this.pathingJarSettings.directory;
+		List<String> jarClasspath = ContentAddressedClasspath.jarDirectories(classpath, directory.resolve("classpath"));
+		return List.of(ContentAddressedClasspath.pathingJar(jarClasspath, directory).toString());
+	}
+
+	/**
+	 * Builds a server that attaches to an identical application that was kept alive by an
+	 * earlier run or launches one that is kept alive. The application must not depend on
+	 * the temporary directories that are deleted when this server is stopped, so the
+	 * directories on the classpath are replaced with content addressed jars.
+	 * @param jvmArguments the JVM arguments to use
+	 * @param classpath the resolved classpath entries
+	 * @return the server
+	 */
+	private CommonsExecWebServer buildKeepAlive(List<String> jvmArguments, List<String> classpath) {
+		Path directory = this.keepAliveSettings.directory;
+		List<String> keepAliveClasspath = ContentAddressedClasspath.jarDirectories(classpath,
+				directory.resolve("classpath"));
+		String fingerprint = SharedWebServerRegistry.fingerprint(createCommandLine(jvmArguments,
+				createApplicationArgs(keepAliveClasspath, Map.of(), this.mainClass)));
+		KeepAlive keepAlive = new KeepAlive(directory, fingerprint, this.keepAliveSettings.idleTimeout);
+		CommandLine commandLine = createCommandLine(jvmArguments, createApplicationArgs(keepAliveClasspath,
+				keepAlive.getSystemProperties(this.mainClass), KeepAliveMain.class.getName()));
+		CommandLine launchCommandLine = createLaunchCommandLine(commandLine);
+		this.keepAlive = keepAlive;
+		return new CommonsExecWebServer(commandLine, keepAlive.getPortFile().toFile(), () -> {
+			this.classpath.cleanup();
+			FileSystemUtils.deleteRecursively(this.applicationPortFile);
+		}, this.startupTimeout, keepAlive.launcher(launchCommandLine), getOutputTailCapacity());
+	}
+
+	/**
+	 * Builds a server that runs the application in the current JVM. The command line is
+	 * only used to describe (and share) the server, since no JVM is started.
+	 * @param jvmArguments the JVM arguments which are ignored
+	 * @param classpath the resolved classpath entries
+	 * @return the server
+	 */
+	private CommonsExecWebServer buildInProcess(List<String> jvmArguments, List<String> classpath) {
+		if (!jvmArguments.isEmpty()) {
+			logger.info(LogMessage.format("Not using the JVM arguments %s because the application runs in process",
+					jvmArguments));
+		}
+		if (this.classDataSharingSettings.enabled || this.aotCacheSettings.enabled
+				|| this.launcherPoolSettings.enabled || this.keepAliveSettings.enabled) {
+			logger.info("Not using CDS, the AOT cache, the launcher pool or keep alive because the application "
+					+ "runs in process");
+		}
+		List<String> applicationArgs = createApplicationArgs(classpath, Map.of(), this.mainClass);
+		CommandLine commandLine = createCommandLine(List.of(), applicationArgs);
+		Map<String, String> systemProperties = createSystemProperties(Map.of());
+		ProcessLauncher processLauncher = () -> InProcessApplication.start(this.beanName, classpath,
+				this.inProcessSettings.shareLibraries, this.mainClass, systemProperties);
+		return new CommonsExecWebServer(commandLine, this.applicationPortFile, () -> this.classpath.cleanup(),
+				this.startupTimeout, processLauncher, getOutputTailCapacity());
+	}
+
+	private int getOutputTailCapacity() {
+		return (int) this.outputTailSize.toBytes();
+	}
+
+	private CommandLine createCommandLine(List<String> jvmArguments, List<String> applicationArguments) {
+		CommandLine commandLine = new CommandLine(this.executable);
+		commandLine.addArguments(jvmArguments.toArray(String[]::new), false);
+		commandLine.addArguments(applicationArguments.toArray(String[]::new), false);
+		return commandLine;
+	}
+
+	private ResidentLauncherPool getLauncherPool(List<String> jvmOptions) {
+		if (!this.launcherPoolSettings.enabled) {
+			return null;
+		}
+		if (this.debugSettings.enabled) {
+			logger.info("Not using the launcher pool because debugging is enabled");
+			return null;
+		}
+		if (this.keepAliveSettings.enabled) {
+			logger.info("Not using the launcher pool because keep alive is enabled");
+			return null;
+		}
+		if (this.classDataSharingSettings.enabled || this.aotCacheSettings.enabled) {
+			logger.info("Not using CDS or the AOT cache because the launcher pool is enabled");
+		}
+		return ResidentLauncherPool.get(this.executable, jvmOptions, this.launcherPoolSettings.size);
+	}
+
+	private List<String> createJvmOptions() {
+		List<String> jvmOptions = new ArrayList<>(this.jvmProfile.getJvmOptions(this.executable));
+		if (this.memoryBudgetSettings.enabled) {
+			jvmOptions.addAll(MemoryBudget.jvmOptions(getMemory()));
+		}
+		if (this.cpuPartitionSettings.enabled) {
+			jvmOptions.add("-XX:ActiveProcessorCount=" + this.cpuPartitionSettings.processors);
+		}
+		jvmOptions.addAll(this.jvmOptions);
+		return jvmOptions;
+	}
+
+	private MemoryBudget getMemoryBudget() {
+		return MemoryBudget.get(this.memoryBudgetSettings.total);
+	}
+
+	private DataSize getMemory() {
+		return getMemoryBudget().memory(this.memoryBudgetSettings.shares, this.memoryBudgetSettings.weight);
+	}
+
+	private StartupCache createStartupCache(List<String> jvmOptions) {
+		if (this.aotCacheSettings.enabled) {
+			if (AotCache.isSupported(this.executable)) {
+				return new AotCache(this.executable, jvmOptions, this.aotCacheSettings.cacheDirectory,
+						this.aotCacheSettings.trainingTimeout);
+			}
+			logger.info(LogMessage.format("Not using the AOT cache because it requires JDK %d+ and %s is JDK %d",
+					AotCache.MINIMUM_FEATURE_VERSION, this.executable,
+					JavaExecutable.of(this.executable).getFeatureVersion()));
+		}
+		if (this.classDataSharingSettings.enabled) {
+			return new ClassDataSharing(this.executable, jvmOptions, this.classDataSharingSettings.archiveDirectory,
+					this.classDataSharingSettings.trainingTimeout);
+		}
+		return null;
+	}
+
+	/**
+	 * Creates the system properties, classpath and main class arguments. Unless the
+	 * application is meant to outlive the current JVM, the main class is run by
+	 * {@link ParentWatchdogMain}, so that the application exits once the current JVM
+	 * exits.
+	 * @param classpath the classpath entries to use
+	 * @param systemPropertyOverrides system properties that override the configured
+	 * system properties
+	 * @param mainClass the main class to run
+	 * @return the arguments
+	 */
+	private List<String> createApplicationArgs(List<String> classpath, Map<String, String> systemPropertyOverrides,
+			String mainClass) {
+		Map<String, String> systemProperties = createSystemProperties(systemPropertyOverrides);
+		List<String> args = new ArrayList<>(Arrays.asList(createSystemPropertyArgs(systemProperties)));
+		args.add("-classpath");
+		args.add(String.join(File.pathSeparator, classpath));
+		if (systemProperties.containsKey(ParentWatchdogMain.PARENT_PID)) {
+			args.add(ParentWatchdogMain.class.getName());
+		}
+		args.add(mainClass);
+		return args;
 	}
 
-	private String[] createSystemPropertyArgs() {
-		Map<String, String> systemPropertyArgs = new HashMap<>(this.systemProperties);
-		systemPropertyArgs.put("PORTFILE", this.applicationPortFile.getAbsolutePath());
+	private static String[] createSystemPropertyArgs(Map<String, String> systemProperties) {
+		return systemProperties.entrySet().stream()
+				.map((e) -> "-D" + e.getKey() + "=" + e.getValue() + "").toArray(String[]::new);
+	}
+
+	private Map<String, String> createSystemProperties(Map<String, String> systemPropertyOverrides) {
+		Map<String, String> systemProperties = new HashMap<>(this.systemProperties);
+		systemProperties.put("PORTFILE", this.applicationPortFile.getAbsolutePath());
 		if (this.useRandomPort) {
-			systemPropertyArgs.put("server.port", "0");
+			systemProperties.put("server.port", "0");
+		}
+		if (isParentWatched()) {
+			systemProperties.put(ParentWatchdogMain.PARENT_PID, String.valueOf(ProcessHandle.current().pid()));
+		}
+		systemProperties.putAll(systemPropertyOverrides);
+		return systemProperties;
+	}
+
+	/**
+	 * Determines if the application exits once the current JVM exits (see
+	 * {@link ParentWatchdogMain}). An application that is kept alive is meant to outlive
+	 * the current JVM and an application that runs in process cannot outlive it.
+	 * @return true if the application exits once the current JVM exits
+	 */
+	private boolean isParentWatched() {
+		return !this.keepAliveSettings.enabled && !this.inProcessSettings.enabled;
+	}
+
+	private File createOutputFile() {
+		try {
+			Path directory = Files.createDirectories(this.redirectOutputSettings.directory);
+			String prefix = (this.beanName != null) ? this.beanName + "-" : "application-";
+			File outputFile = Files.createTempFile(directory, prefix, ".log").toFile();
+			if (logger.isDebugEnabled()) {
+				logger.debug(LogMessage.format("Redirecting the output of %s to %s", this.beanName, outputFile));
+			}
+			return outputFile;
+		}
+		catch (IOException ex) {
+			throw new RuntimeException(ex);
 		}
-		return systemPropertyArgs.entrySet().stream().map((e) -> "-D" + e.getKey() + "=" + e.getValue() + "")
-				.toArray(String[]::new);
 	}
 
 	private static String currentJavaExecutable() {
@@ -179,13 +766,100 @@ public class CommonsExecWebServerFactoryBean
 
 	@Override
 	public CommonsExecWebServer getObject() throws Exception {
+		getLaunchCoordinator().launch();
+		return launch();
+	}
+
+	/**
+	 * Builds and starts the {@link CommonsExecWebServer} if it has not already been
+	 * started.
+	 * @return the started {@link CommonsExecWebServer}
+	 */
+	synchronized CommonsExecWebServer launch() {
 		if (this.webServer == null) {
-			this.webServer = build();
-			this.webServer.start();
+			if (this.shared && !this.keepAliveSettings.enabled) {
+				this.webServer = acquireSharedWebServer();
+			}
+			else {
+				this.webServer = createWebServer();
+				this.webServer.start();
+			}
 		}
 		return this.webServer;
 	}
 
+	/**
+	 * Gets the running server of an identical application or creates and starts one if
+	 * there is none. The fingerprint of the application is computed from its classpath,
+	 * JVM options and system properties before the server is built, so that a running
+	 * server is reused without creating startup caches or reserving memory. How the
+	 * application is launched (e.g. using CDS or a pathing jar) is not part of the
+	 * fingerprint.
+	 * @return the shared server
+	 */
+	private CommonsExecWebServer acquireSharedWebServer() {
+		CommandLine commandLine = createCommandLine(createJvmArguments(createJvmOptions()),
+				createApplicationArgs(this.classpath.resolve(), Map.of(), this.mainClass));
+		String fingerprint = SharedWebServerRegistry.fingerprint(commandLine);
+		AtomicBoolean created = new AtomicBoolean();
+		CommonsExecWebServer webServer = SharedWebServerRegistry.acquire(fingerprint, () -> {
+			created.set(true);
+			return createWebServer();
+		});
+		if (!created.get()) {
+			this.classpath.cleanup();
+			FileSystemUtils.deleteRecursively(this.applicationPortFile);
+		}
+		return webServer;
+	}
+
+	private CommonsExecWebServer createWebServer() {
+		CommonsExecWebServer webServer = buildWithinMemoryBudget();
+		webServer.shutdownGracePeriod(this.shutdownGracePeriod);
+		if (this.readyPatterns != null) {
+			webServer.readyWhenOutputMatches(this.readyPatterns);
+		}
+		if (this.readinessSettings.enabled) {
+			webServer.readinessProbe(new ReadinessProbe(this.readinessSettings.path));
+		}
+		return webServer;
+	}
+
+	/**
+	 * Gets the {@link WebServerLaunchCoordinator} shared with every other
+	 * {@link CommonsExecWebServerFactoryBean} in the {@link BeanFactory} that has not yet
+	 * been launched.
+	 * @return the {@link WebServerLaunchCoordinator} to use
+	 */
+	private WebServerLaunchCoordinator getLaunchCoordinator() {
+		synchronized (CommonsExecWebServerFactoryBean.class) {
+			if (this.launchCoordinator == null) {
+				Set<CommonsExecWebServerFactoryBean> factoryBeans = new LinkedHashSet<>();
+				factoryBeans.add(this);
+				findFactoryBeans().stream().filter((factoryBean) -> factoryBean.launchCoordinator == null)
+						.forEachOrdered(factoryBeans::add);
+				WebServerLaunchCoordinator launchCoordinator = new WebServerLaunchCoordinator(factoryBeans);
+				factoryBeans.forEach((factoryBean) -> factoryBean.launchCoordinator = launchCoordinator);
+			}
+			return this.launchCoordinator;
+		}
+	}
+
+	private Collection<CommonsExecWebServerFactoryBean> findFactoryBeans() {
+		if (this.beanFactory instanceof ListableBeanFactory listableBeanFactory) {
+			return listableBeanFactory.getBeansOfType(CommonsExecWebServerFactoryBean.class, false, false).values();
+		}
+		return Set.of();
+	}
+
+	String getBeanName() {
+		return this.beanName;
+	}
+
+	boolean isReadinessDeferred() {
+		return this.deferReadiness;
+	}
+
 	@Override
 	public Class<?> getObjectType() {
 		return CommonsExecWebServer.class;
@@ -193,27 +867,698 @@ public class CommonsExecWebServerFactoryBean
 
 	@Override
 	public void setBeanName(String beanName) {
+		this.beanName = beanName;
 		String basePath = "testjars/" + beanName;
 		this.classpath.entries(new ScanningClasspathEntry(basePath));
 	}
 
+	@Override
+	public void setBeanFactory(BeanFactory beanFactory) {
+		this.beanFactory = beanFactory;
+	}
+
 	@Override
 	public void destroy() throws Exception {
-		if (this.webServer != null) {
-			this.webServer.destroy();
-		}
+		destroyServer();
+	}
+
+	/**
+	 * Does nothing since the server is started the first time it is requested.
+	 */
+	@Override
+	public void start() {
+	}
+
+	@Override
+	public void stop() {
+		destroyServer();
+	}
+
+	/**
+	 * Stops the server asynchronously, so that the servers of every
+	 * {@link CommonsExecWebServerFactoryBean} are stopped concurrently and the time it
+	 * takes is close to the time the slowest server takes to shut down rather than the
+	 * sum of all of them.
+	 * @param callback invoked once the server is stopped
+	 */
+	@Override
+	public void stop(Runnable callback) {
+		stopExecutor.execute(() -> {
+			try {
+				destroyServer();
+			}
+			catch (RuntimeException ex) {
+				logger.warn(LogMessage.format("Failed to stop '%s'", this.beanName), ex);
+			}
+			finally {
+				callback.run();
+			}
+		});
+	}
+
+	@Override
+	public synchronized boolean isRunning() {
+		return this.webServer != null;
+	}
+
+	@Override
+	public boolean isAutoStartup() {
+		return false;
+	}
+
+	/**
+	 * The server is not stopped when the
+	 * {@link org.springframework.context.ApplicationContext} is paused (e.g. when a
+	 * cached test context is not in use), since it would not be started again.
+	 * @return false
+	 */
+	@Override
+	public boolean isPauseable() {
+		return false;
+	}
+
+	/**
+	 * The servers are stopped in the last phase, once every other {@link SmartLifecycle}
+	 * (e.g. a client that uses a server) has been stopped.
+	 * @return {@link Integer#MIN_VALUE}
+	 */
+	@Override
+	public int getPhase() {
+		return Integer.MIN_VALUE;
+	}
+
+	/**
+	 * Builds the {@link CommonsExecWebServer} once its memory is reserved from the memory
+	 * budget, if the memory budget is enabled. The memory is released once the server is
+	 * stopped.
+	 * @return the {@link CommonsExecWebServer}
+	 */
+	private CommonsExecWebServer buildWithinMemoryBudget() {
+		if (!this.memoryBudgetSettings.enabled || this.inProcessSettings.enabled) {
+			return build();
+		}
+		Runnable release = getMemoryBudget().reserve(getMemory(), this.memoryBudgetSettings.timeout);
+		try {
+			CommonsExecWebServer webServer = build();
+			webServer.addCleanup(release);
+			return webServer;
+		}
+		catch (RuntimeException ex) {
+			release.run();
+			throw ex;
+		}
+	}
+
+	/**
+	 * Stops the server if it has not already been stopped.
+	 */
+	synchronized void destroyServer() {
+		if (this.webServer == null) {
+			return;
+		}
+		if (this.keepAlive != null) {
+			this.keepAlive.release();
+			this.webServer.detach();
+		}
+		else if (this.shared) {
+			SharedWebServerRegistry.release(this.webServer);
+		}
+		else {
+			this.webServer.destroy();
+		}
+		this.webServer = null;
 	}
 
 	/**
 	 * The server is asynchronous to make ApplicationContext startup faster, but we want
 	 * to ensure that the web server starts before the ApplicationContext startup
-	 * completes.
+	 * completes. All servers launched together are awaited together, unless waiting for
+	 * them is deferred (see {@link #deferReadiness(boolean)}).
 	 */
 	@Override
 	public void afterSingletonsInstantiated() {
-		if (this.webServer != null) {
-			this.webServer.getPort();
+		if (this.webServer != null && !this.deferReadiness) {
+			getLaunchCoordinator().awaitReady();
+		}
+	}
+
+	/**
+	 * The settings for Class Data Sharing (CDS). When enabled, a training run of the
+	 * application creates a CDS archive that is reused by later launches with the same
+	 * classpath and JVM. The archive is recreated when the classpath or JVM changes.
+	 *
+	 * @author Rob Winch
+	 */
+	public static class ClassDataSharingSettings {
+
+		private boolean enabled;
+
+		private Path archiveDirectory = Path.of(System.getProperty("java.io.tmpdir"), "testjars-cds");
+
+		private Duration trainingTimeout = Duration.ofMinutes(2);
+
+		/**
+		 * Sets if CDS is enabled.
+		 * @param enabled if CDS is enabled or not (default is false).
+		 * @return the {@link ClassDataSharingSettings} for additional customization.
+		 */
+		public ClassDataSharingSettings enabled(boolean enabled) {
+			this.enabled = enabled;
+			return this;
+		}
+
+		/**
+		 * Sets the directory that the archives are stored in. A directory that is
+		 * persisted between builds allows the archives to be reused between builds.
+		 * @param archiveDirectory the directory to store the archives in (default is
+		 * testjars-cds in java.io.tmpdir).
+		 * @return the {@link ClassDataSharingSettings} for additional customization.
+		 */
+		public ClassDataSharingSettings archiveDirectory(Path archiveDirectory) {
+			Assert.notNull(archiveDirectory, "archiveDirectory cannot be null");
+			this.archiveDirectory = archiveDirectory;
+			return this;
+		}
+
+		/**
+		 * Sets the maximum amount of time the training run may take. The training run
+		 * exits once the {@code ApplicationContext} is refreshed (Spring Framework 6.1+),
+		 * otherwise it is destroyed once the timeout elapses.
+		 * @param trainingTimeout the maximum amount of time the training run may take
+		 * (default is 2 minutes).
+		 * @return the {@link ClassDataSharingSettings} for additional customization.
+		 */
+		public ClassDataSharingSettings trainingTimeout(Duration trainingTimeout) {
+			Assert.notNull(trainingTimeout, "trainingTimeout cannot be null");
+			this.trainingTimeout = trainingTimeout;
+			return this;
+		}
+
+	}
+
+	/**
+	 * The settings for the JDK AOT cache (JEP 483). When enabled, a training run of the
+	 * application records an AOT configuration that is used to create an AOT cache that
+	 * is reused by later launches with the same classpath and JVM. The cache is recreated
+	 * when the classpath or JVM changes.
+	 *
+	 * @author Rob Winch
+	 */
+	public static class AotCacheSettings {
+
+		private boolean enabled;
+
+		private Path cacheDirectory = Path.of(System.getProperty("java.io.tmpdir"), "testjars-aot");
+
+		private Duration trainingTimeout = Duration.ofMinutes(2);
+
+		/**
+		 * Sets if the AOT cache is enabled.
+		 * @param enabled if the AOT cache is enabled or not (default is false).
+		 * @return the {@link AotCacheSettings} for additional customization.
+		 */
+		public AotCacheSettings enabled(boolean enabled) {
+			this.enabled = enabled;
+			return this;
+		}
+
+		/**
+		 * Sets the directory that the caches are stored in. A directory that is persisted
+		 * between builds (e.g. by CI) allows the caches to be reused between builds.
+		 * @param cacheDirectory the directory to store the caches in (default is
+		 * testjars-aot in java.io.tmpdir).
+		 * @return the {@link AotCacheSettings} for additional customization.
+		 */
+		public AotCacheSettings cacheDirectory(Path cacheDirectory) {
+			Assert.notNull(cacheDirectory, "cacheDirectory cannot be null");
+			this.cacheDirectory = cacheDirectory;
+			return this;
+		}
+
+		/**
+		 * Sets the maximum amount of time each step of creating the cache may take. The
+		 * training run exits once the {@code ApplicationContext} is refreshed (Spring
+		 * Framework 6.1+), otherwise it is destroyed once the timeout elapses.
+		 * @param trainingTimeout the maximum amount of time each step may take (default
+		 * is 2 minutes).
+		 * @return the {@link AotCacheSettings} for additional customization.
+		 */
+		public AotCacheSettings trainingTimeout(Duration trainingTimeout) {
+			Assert.notNull(trainingTimeout, "trainingTimeout cannot be null");
+			this.trainingTimeout = trainingTimeout;
+			return this;
+		}
+
+	}
+
+	/**
+	 * The settings for the launcher pool. When enabled, the application is run by a JVM
+	 * that was started ahead of time with the same java executable and JVM options. The
+	 * JVM loads the application using a new class loader, so the application must not
+	 * depend on the system class loader or on system properties that are only read when
+	 * the JVM starts. The pool is refilled in the background every time a JVM is taken
+	 * from it. CDS and the AOT cache are not used when the launcher pool is enabled.
+	 *
+	 * @author Rob Winch
+	 */
+	public static class LauncherPoolSettings {
+
+		private boolean enabled;
+
+		private int size = 1;
+
+		/**
+		 * Sets if the launcher pool is enabled.
+		 * @param enabled if the launcher pool is enabled or not (default is false).
+		 * @return the {@link LauncherPoolSettings} for additional customization.
+		 */
+		public LauncherPoolSettings enabled(boolean enabled) {
+			this.enabled = enabled;
+			return this;
+		}
+
+		/**
+		 * Sets the number of idle JVMs to keep in the pool.
+		 * @param size the number of idle JVMs to keep (default is 1).
+		 * @return the {@link LauncherPoolSettings} for additional customization.
+		 */
+		public LauncherPoolSettings size(int size) {
+			Assert.isTrue(size > 0, "size must be greater than 0");
+			this.size = size;
+			return this;
+		}
+
+	}
+
+	/**
+	 * The settings for keeping the application alive between test runs. When enabled, the
+	 * application is not stopped when the {@code ApplicationContext} is closed. A later
+	 * JVM that needs an application with an identical command attaches to the running
+	 * process instead of launching a new one. Every JVM that uses the application holds
+	 * a lease on it, and the application exits once no lease has been held for the idle
+	 * timeout.
+	 *
+	 * @author Rob Winch
+	 */
+	public static class KeepAliveSettings {
+
+		private boolean enabled;
+
+		private Path directory = Path.of(System.getProperty("java.io.tmpdir"), "testjars-keep-alive");
+
+		private Duration idleTimeout = Duration.ofMinutes(15);
+
+		/**
+		 * Sets if keep alive is enabled.
+		 * @param enabled if keep alive is enabled or not (default is false).
+		 * @return the {@link KeepAliveSettings} for additional customization.
+		 */
+		public KeepAliveSettings enabled(boolean enabled) {
+			this.enabled = enabled;
+			return this;
+		}
+
+		/**
+		 * Sets the directory that contains the lease files and the classpath of the
+		 * applications that are kept alive.
+		 * @param directory the directory to use (default is testjars-keep-alive in
+		 * java.io.tmpdir).
+		 * @return the {@link KeepAliveSettings} for additional customization.
+		 */
+		public KeepAliveSettings directory(Path directory) {
+			Assert.notNull(directory, "directory cannot be null");
+			this.directory = directory;
+			return this;
+		}
+
+		/**
+		 * Sets how long the application keeps running once no JVM holds a lease on it.
+		 * @param idleTimeout how long the application keeps running (default is 15
+		 * minutes).
+		 * @return the {@link KeepAliveSettings} for additional customization.
+		 */
+		public KeepAliveSettings idleTimeout(Duration idleTimeout) {
+			Assert.notNull(idleTimeout, "idleTimeout cannot be null");
+			this.idleTimeout = idleTimeout;
+			return this;
+		}
+
+	}
+
+	/**
+	 * The settings for redirecting the output of the application. When enabled, the
+	 * application is launched using a {@link ProcessBuilder} that appends its standard
+	 * output and standard error to a new file, so no threads are needed to copy the
+	 * output and it never passes through the heap of the current JVM. The end of the file
+	 * is included in the failure if the application exits before writing its port. The
+	 * output is not redirected when the launcher pool, keep alive or running in process
+	 * is enabled.
+	 *
+	 * @author Rob Winch
+	 */
+	public static class RedirectOutputSettings {
+
+		private boolean enabled;
+
+		private Path directory = Path.of(System.getProperty("java.io.tmpdir"), "testjars-output");
+
+		/**
+		 * Sets if the output is redirected to a file.
+		 * @param enabled if the output is redirected or not (default is false).
+		 * @return the {@link RedirectOutputSettings} for additional customization.
+		 */
+		public RedirectOutputSettings enabled(boolean enabled) {
+			this.enabled = enabled;
+			return this;
+		}
+
+		/**
+		 * Sets the directory to create the files in. Each file is named after the bean
+		 * name of the {@link CommonsExecWebServerFactoryBean} and is not deleted when the
+		 * application is stopped.
+		 * @param directory the directory to create the files in (default is
+		 * testjars-output in java.io.tmpdir).
+		 * @return the {@link RedirectOutputSettings} for additional customization.
+		 */
+		public RedirectOutputSettings directory(Path directory) {
+			Assert.notNull(directory, "directory cannot be null");
+			this.directory = directory;
+			return this;
+		}
+
+	}
+
+	/**
+	 * The settings for launching the application with a command line argument file
+	 * ({@code java @file}). When enabled, the JVM options, system properties, classpath
+	 * and main class are written to a file, so that a large classpath (e.g. from a
+	 * {@code MavenClasspathEntry}) does not make the command line long. This requires
+	 * the executable to be Java 9+. The file is named after the fingerprint of the
+	 * command and is reused if its content did not change. The launcher pool and running
+	 * in process do not use a command line, so they do not use an argument file.
+	 *
+	 * @author Rob Winch
+	 */
+	public static class ArgumentFileSettings {
+
+		private boolean enabled;
+
+		private Path directory = Path.of(System.getProperty("java.io.tmpdir"), "testjars-argfiles");
+
+		/**
+		 * Sets if the arguments are written to an argument file.
+		 * @param enabled if an argument file is used or not (default is false).
+		 * @return the {@link ArgumentFileSettings} for additional customization.
+		 */
+		public ArgumentFileSettings enabled(boolean enabled) {
+			this.enabled = enabled;
+			return this;
+		}
+
+		/**
+		 * Sets the directory to write the argument files to. The files are not deleted
+		 * when the application is stopped, so that they can be reused.
+		 * @param directory the directory to write the argument files to (default is
+		 * testjars-argfiles in java.io.tmpdir).
+		 * @return the {@link ArgumentFileSettings} for additional customization.
+		 */
+		public ArgumentFileSettings directory(Path directory) {
+			Assert.notNull(directory, "directory cannot be null");
+			this.directory = directory;
+			return this;
+		}
+
+	}
+
+	/**
+	 * The settings for launching the application with a pathing jar. When enabled, the
+	 * application is launched with {@code -classpath pathing.jar} where the manifest of
+	 * the jar lists every classpath entry in its {@code Class-Path}, so the length of the
+	 * command line does not depend on the number of jars. The jar is named after a hash
+	 * of the ordered classpath entries and is reused across runs. When CDS or the AOT
+	 * cache is enabled, the directories on the classpath are replaced with content
+	 * addressed jars, so the training run and every later run use the same pathing jar.
+	 * The launcher pool and running in process do not use a command line, so they do
+	 * not use a pathing jar.
+	 *
+	 * @author Rob Winch
+	 */
+	public static class PathingJarSettings {
+
+		private boolean enabled;
+
+		private Path directory = Path.of(System.getProperty("java.io.tmpdir"), "testjars-pathing");
+
+		/**
+		 * Sets if the application is launched with a pathing jar.
+		 * @param enabled if a pathing jar is used or not (default is false).
+		 * @return the {@link PathingJarSettings} for additional customization.
+		 */
+		public PathingJarSettings enabled(boolean enabled) {
+			this.enabled = enabled;
+			return this;
+		}
+
+		/**
+		 * Sets the directory to write the pathing jars to. The jars are not deleted when
+		 * the application is stopped, so that they can be reused.
+		 * @param directory the directory to write the pathing jars to (default is
+		 * testjars-pathing in java.io.tmpdir).
+		 * @return the {@link PathingJarSettings} for additional customization.
+		 */
+		public PathingJarSettings directory(Path directory) {
+			Assert.notNull(directory, "directory cannot be null");
+			this.directory = directory;
+			return this;
+		}
+
+	}
+
+	/**
+	 * The settings for probing the readiness of the application. When enabled, the
+	 * application is ready once an HTTP {@code GET} of the path on {@code localhost}
+	 * responds with a {@code 2xx} status after its port is known (e.g. written to the
+	 * port file or matched in its output), rather than as soon as its port is known.
+	 * Failed requests are retried with an exponential backoff. If the application does
+	 * not respond with a {@code 2xx} status within the startup timeout, it is stopped
+	 * and the failure contains a thread dump of the application.
+	 *
+	 * @author Rob Winch
+	 */
+	public static class ReadinessSettings {
+
+		private boolean enabled;
+
+		private String path = ReadinessProbe.DEFAULT_PATH;
+
+		/**
+		 * Sets if the readiness is probed.
+		 * @param enabled if the readiness is probed or not (default is false).
+		 * @return the {@link ReadinessSettings} for additional customization.
+		 */
+		public ReadinessSettings enabled(boolean enabled) {
+			this.enabled = enabled;
+			return this;
+		}
+
+		/**
+		 * Sets the path to probe. Probing the readiness group requires Spring Boot
+		 * Actuator and {@code management.endpoint.health.probes.enabled=true} unless the
+		 * application runs on Kubernetes.
+		 * @param path the path to probe (default is /actuator/health/readiness).
+		 * @return the {@link ReadinessSettings} for additional customization.
+		 */
+		public ReadinessSettings path(String path) {
+			Assert.hasText(path, "path cannot be empty");
+			Assert.isTrue(path.startsWith("/"), "path must start with /");
+			this.path = path;
+			return this;
+		}
+
+	}
+
+	/**
+	 * The settings for the memory budget. There is a single budget for all of the
+	 * applications that are launched by the current JVM, so every application that uses
+	 * it must use the same total. When enabled, the total is divided into shares and the
+	 * application uses as many shares as its weight. The memory of its shares is divided
+	 * into the maximum heap ({@code -Xmx}), the maximum metaspace
+	 * ({@code -XX:MaxMetaspaceSize}) and the reserved code cache
+	 * ({@code -XX:ReservedCodeCacheSize}) of its JVM, which can be overridden using the
+	 * JVM options. The memory is reserved from the budget before the application is
+	 * launched and released once it has exited, so a launch that would exceed the budget
+	 * waits for other applications to be stopped. The memory budget is not used when
+	 * running in process.
+	 *
+	 * @author Rob Winch
+	 */
+	public static class MemoryBudgetSettings {
+
+		private boolean enabled;
+
+		private DataSize total = MemoryBudget.defaultTotal();
+
+		private int shares = 4;
+
+		private int weight = 1;
+
+		private Duration timeout = Duration.ofMinutes(1);
+
+		/**
+		 * Sets if the memory budget is enabled.
+		 * @param enabled if the memory budget is enabled or not (default is false).
+		 * @return the {@link MemoryBudgetSettings} for additional customization.
+		 */
+		public MemoryBudgetSettings enabled(boolean enabled) {
+			this.enabled = enabled;
+			return this;
+		}
+
+		/**
+		 * Sets the total amount of memory that the applications may use, which must be
+		 * the same for every application that uses the memory budget.
+		 * @param total the total amount of memory (default is half of the physical
+		 * memory).
+		 * @return the {@link MemoryBudgetSettings} for additional customization.
+		 */
+		public MemoryBudgetSettings total(DataSize total) {
+			Assert.notNull(total, "total cannot be null");
+			this.total = total;
+			return this;
+		}
+
+		/**
+		 * Sets the number of shares the total is divided into.
+		 * @param shares the number of shares (default is 4).
+		 * @return the {@link MemoryBudgetSettings} for additional customization.
+		 */
+		public MemoryBudgetSettings shares(int shares) {
+			Assert.isTrue(shares > 0, "shares must be greater than 0");
+			this.shares = shares;
+			return this;
+		}
+
+		/**
+		 * Sets the number of shares the application uses.
+		 * @param weight the number of shares (default is 1).
+		 * @return the {@link MemoryBudgetSettings} for additional customization.
+		 */
+		public MemoryBudgetSettings weight(int weight) {
+			Assert.isTrue(weight > 0, "weight must be greater than 0");
+			this.weight = weight;
+			return this;
+		}
+
+		/**
+		 * Sets how long a launch waits for memory to be released when the budget is
+		 * exhausted before it fails.
+		 * @param timeout how long to wait (default is 1 minute).
+		 * @return the {@link MemoryBudgetSettings} for additional customization.
+		 */
+		public MemoryBudgetSettings timeout(Duration timeout) {
+			Assert.notNull(timeout, "timeout cannot be null");
+			this.timeout = timeout;
+			return this;
+		}
+
+	}
+
+	/**
+	 * The settings for partitioning the CPUs. When enabled, the JVM of the application
+	 * uses {@code -XX:ActiveProcessorCount}, so that it sizes its thread pools (e.g. the
+	 * garbage collector, the common {@code ForkJoinPool} and the web server) for its
+	 * share of the CPUs rather than all of the CPUs of the host. On Linux, the
+	 * application is also pinned to CPUs that no other application that is launched by
+	 * the current JVM is pinned to using {@code taskset} (if it is available). The CPUs
+	 * are released once the application has exited. If there are not enough free CPUs,
+	 * the application is not pinned. Applications that are launched by the launcher pool
+	 * or kept alive are not pinned. Partitioning the CPUs is not used when running in
+	 * process.
+	 *
+	 * @author Rob Winch
+	 */
+	public static class CpuPartitionSettings {
+
+		private boolean enabled;
+
+		private int processors = 2;
+
+		private boolean affinity = true;
+
+		/**
+		 * Sets if partitioning the CPUs is enabled.
+		 * @param enabled if partitioning the CPUs is enabled or not (default is false).
+		 * @return the {@link CpuPartitionSettings} for additional customization.
+		 */
+		public CpuPartitionSettings enabled(boolean enabled) {
+			this.enabled = enabled;
+			return this;
+		}
+
+		/**
+		 * Sets the number of CPUs the application uses.
+		 * @param processors the number of CPUs (default is 2).
+		 * @return the {@link CpuPartitionSettings} for additional customization.
+		 */
+		public CpuPartitionSettings processors(int processors) {
+			Assert.isTrue(processors > 0, "processors must be greater than 0");
+			this.processors = processors;
+			return this;
+		}
+
+		/**
+		 * Sets if the application is pinned to CPUs that no other application uses.
+		 * @param affinity if the application is pinned or not (default is true).
+		 * @return the {@link CpuPartitionSettings} for additional customization.
+		 */
+		public CpuPartitionSettings affinity(boolean affinity) {
+			this.affinity = affinity;
+			return this;
+		}
+
+	}
+
+	/**
+	 * The settings for running the application in process. When enabled, the application
+	 * runs inside the current JVM, which avoids starting and warming up another JVM, but
+	 * the application shares the JVM (e.g. {@code System.exit}) with the tests. The system
+	 * properties are passed as command line arguments and JVM options are not supported.
+	 * The application must be a web application that uses Spring Boot's
+	 * auto-configuration, since the port is read using the
+	 * {@code SpringApplicationAdminMXBean}.
+	 *
+	 * @author Rob Winch
+	 */
+	public static class InProcessSettings {
+
+		private boolean enabled;
+
+		private boolean shareLibraries;
+
+		/**
+		 * Sets if the application runs in process.
+		 * @param enabled if the application runs in process or not (default is false).
+		 * @return the {@link InProcessSettings} for additional customization.
+		 */
+		public InProcessSettings enabled(boolean enabled) {
+			this.enabled = enabled;
+			return this;
+		}
+
+		/**
+		 * Sets if the jars on the classpath are loaded by a class loader that is shared
+		 * with every other application that runs in process and has jars with identical
+		 * content on its classpath, so that their classes are loaded and JIT compiled
+		 * only once. The libraries must not keep state in static fields that conflicts
+		 * between applications (e.g. the logging system).
+		 * @param shareLibraries if the libraries are shared or not (default is false).
+		 * @return the {@link InProcessSettings} for additional customization.
+		 */
+		public InProcessSettings shareLibraries(boolean shareLibraries) {
+			this.shareLibraries = shareLibraries;
+			return this;
 		}
+
 	}
 
 	/**
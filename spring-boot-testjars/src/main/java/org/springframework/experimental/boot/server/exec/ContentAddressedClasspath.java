@@ -0,0 +1,252 @@
+/*
+ * Copyright 2012-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.experimental.boot.server.exec;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.stream.Stream;
+
+/**
+ * Utilities for creating classpaths whose entries have a stable location that is derived
+ * from their content. The directories created by testjars have a random name, so they
+ * are packaged into jars that are named after a hash of their content. This allows the
+ * same classpath to be recognized (e.g. by a CDS archive) across runs.
+ *
+ * @author Rob Winch
+ */
+final class ContentAddressedClasspath {
+
+	/**
+	 * Replaces every directory in the classpath with a jar in the provided directory that
+	 * is named after a hash of the directory content. A jar that already exists is
+	 * reused.
+	 * @param classpath the classpath entries
+	 * @param jarDirectory the directory to write the jars to
+	 * @return the classpath entries with the directories replaced by jars
+	 */
+	static List<String> jarDirectories(List<String> classpath, Path jarDirectory) {
+		List<String> result = new ArrayList<>(classpath.size());
+		for (String entry : classpath) {
+			Path path = Path.of(entry);
+			result.add(Files.isDirectory(path) ? jar(path, jarDirectory).toString() : entry);
+		}
+		return result;
+	}
+
+	/**
+	 * Gets a pathing jar that contains only a manifest whose {@code Class-Path} lists the
+	 * provided classpath entries as file URLs, so that the classpath can be passed as a
+	 * single entry. The jar is named after a hash of the ordered entries, so a jar that
+	 * already exists for the same entries is reused.
+	 * @param classpath the classpath entries
+	 * @param jarDirectory the directory to write the jar to
+	 * @return the pathing jar
+	 */
+	static Path pathingJar(List<String> classpath, Path jarDirectory) {
+		List<String> urls = new ArrayList<>(classpath.size());
+		for (String entry : classpath) {
+			urls.add(Path.of(entry).toAbsolutePath().toUri().toString());
+		}
+		MessageDigest digest = sha256();
+		urls.forEach((url) -> update(digest, url));
+		Path jar = jarDirectory.resolve("pathing-" + HexFormat.of().formatHex(digest.digest()) + ".jar");
+		if (Files.exists(jar)) {
+			return jar;
+		}
+		Manifest manifest = new Manifest();
+		manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+		manifest.getMainAttributes().put(Attributes.Name.CLASS_PATH, String.join(" ", urls));
+		try {
+			Files.createDirectories(jarDirectory);
+			Path tmp = Files.createTempFile(jarDirectory, "pathing-", ".jar.tmp");
+			try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(tmp), manifest)) {
+				// the jar only contains the manifest
+			}
+			moveAtomically(tmp, jar);
+			return jar;
+		}
+		catch (IOException ex) {
+			throw new RuntimeException("Failed to create a pathing jar in " + jarDirectory, ex);
+		}
+	}
+
+	/**
+	 * Creates a fingerprint of the provided values and classpath. Files contribute their
+	 * path, size and last modified time and directories contribute only their content,
+	 * since the directories created by testjars have a random name.
+	 * @param classpath the classpath entries
+	 * @param values additional values to include in the fingerprint
+	 * @return a hex encoded hash
+	 */
+	static String fingerprint(List<String> classpath, String... values) {
+		MessageDigest digest = sha256();
+		for (String value : values) {
+			update(digest, value);
+		}
+		for (String entry : classpath) {
+			Path path = Path.of(entry);
+			if (Files.isDirectory(path)) {
+				update(digest, hashDirectory(path));
+			}
+			else {
+				File file = path.toFile();
+				update(digest, entry);
+				update(digest, file.length() + ":" + file.lastModified());
+			}
+		}
+		return HexFormat.of().formatHex(digest.digest());
+	}
+
+	/**
+	 * Creates a hash of the relative paths and contents of all the files in a
+	 * directory.
+	 * @param directory the directory to hash
+	 * @return a hex encoded hash
+	 */
+	static String hashDirectory(Path directory) {
+		MessageDigest digest = sha256();
+		try {
+			for (Path file : files(directory)) {
+				update(digest, relativeName(directory, file));
+				digest.update(Files.readAllBytes(file));
+			}
+		}
+		catch (IOException ex) {
+			throw new RuntimeException("Failed to hash " + directory, ex);
+		}
+		return HexFormat.of().formatHex(digest.digest());
+	}
+
+	/**
+	 * Creates a hash of the contents of a file.
+	 * @param file the file to hash
+	 * @return a hex encoded hash
+	 */
+	static String hashFile(Path file) {
+		MessageDigest digest = sha256();
+		byte[] buffer = new byte[8192];
+		try (InputStream input = Files.newInputStream(file)) {
+			int read;
+			while ((read = input.read(buffer)) != -1) {
+				digest.update(buffer, 0, read);
+			}
+		}
+		catch (IOException ex) {
+			throw new RuntimeException("Failed to hash " + file, ex);
+		}
+		return HexFormat.of().formatHex(digest.digest());
+	}
+
+	private static Path jar(Path directory, Path jarDirectory) {
+		Path jar = jarDirectory.resolve("classpath-" + hashDirectory(directory) + ".jar");
+		if (Files.exists(jar)) {
+			return jar;
+		}
+		try {
+			Files.createDirectories(jarDirectory);
+			Path tmp = Files.createTempFile(jarDirectory, "classpath-", ".jar.tmp");
+			try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(tmp))) {
+				writeEntries(directory, out);
+			}
+			moveAtomically(tmp, jar);
+			return jar;
+		}
+		catch (IOException ex) {
+			throw new RuntimeException("Failed to create a jar from " + directory, ex);
+		}
+	}
+
+	private static void writeEntries(Path directory, JarOutputStream out) throws IOException {
+		try (Stream<Path> paths = Files.walk(directory)) {
+			for (Path path : paths.sorted().toList()) {
+				if (path.equals(directory)) {
+					continue;
+				}
+				String name = relativeName(directory, path);
+				if (Files.isDirectory(path)) {
+					out.putNextEntry(new JarEntry(name + "/"));
+				}
+				else {
+					out.putNextEntry(new JarEntry(name));
+					Files.copy(path, out);
+				}
+				out.closeEntry();
+			}
+		}
+	}
+
+	/**
+	 * Moves a file into place so that other processes never observe a partially written
+	 * file.
+	 * @param source the file to move
+	 * @param target the target location
+	 * @throws IOException if the file cannot be moved
+	 */
+	static void moveAtomically(Path source, Path target) throws IOException {
+		try {
+			Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		}
+		catch (IOException ex) {
+			Files.deleteIfExists(source);
+			if (!Files.exists(target)) {
+				throw ex;
+			}
+		}
+	}
+
+	private static List<Path> files(Path directory) throws IOException {
+		try (Stream<Path> paths = Files.walk(directory)) {
+			return paths.filter(Files::isRegularFile).sorted().toList();
+		}
+	}
+
+	private static String relativeName(Path directory, Path path) {
+		return directory.relativize(path).toString().replace(File.separatorChar, '/');
+	}
+
+	private static void update(MessageDigest digest, String value) {
+		digest.update(value.getBytes(StandardCharsets.UTF_8));
+		digest.update((byte) 0);
+	}
+
+	private static MessageDigest sha256() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		}
+		catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	private ContentAddressedClasspath() {
+	}
+
+}
@@ -0,0 +1,286 @@
+/*
+ * Copyright 2012-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.experimental.boot.server.exec;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.apache.commons.exec.CommandLine;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.log.LogMessage;
+
+/**
+ * Partitions the CPUs that the current JVM may run on between the JVMs of the servers
+ * that it launches, so that every server is pinned to CPUs that no other server uses.
+ * <p>
+ * The CPUs are read from {@code /proc/self/status}, so CPUs that the current JVM is not
+ * allowed to run on are never used. Servers are pinned using {@code taskset}, which
+ * executes the command in place, so the process of the server is the pinned JVM. If
+ * there are not enough free CPUs, the server is not pinned rather than sharing the CPUs
+ * of another server.
+ * <p>
+ * Every reserved CPU is also locked with a file lock on {@code cpu-<n>.lock} in a
+ * directory that is shared by every JVM (e.g. the forks of a parallel build), so that
+ * servers launched by different JVMs are not pinned to the same CPUs. The operating
+ * system releases the locks of a JVM that exits, so CPUs are never left reserved by a
+ * JVM that no longer exists. The lock files are not deleted, since there is at most one
+ * for every CPU and deleting a file that another JVM is about to lock would allow two
+ * JVMs to lock the same CPU.
+ *
+ * @author Rob Winch
+ */
+final class CpuPartitions {
+
+	private static final Log logger = LogFactory.getLog(CpuPartitions.class);
+
+	static final CpuPartitions INSTANCE = new CpuPartitions(readAllowedCpus(),
+			Path.of(System.getProperty("java.io.tmpdir"), "testjars-cpus"));
+
+	/**
+	 * A {@link Partition} without CPUs, which does not pin the command.
+	 */
+	static final Partition NONE = new Partition(null, List.of(), List.of());
+
+	private final List<Integer> cpus;
+
+	private final Path lockDirectory;
+
+	private final Set<Integer> reserved = new HashSet<>();
+
+	/**
+	 * Creates a new instance.
+	 * @param cpus the CPUs that may be reserved
+	 * @param lockDirectory the directory of the lock files that are shared by every JVM
+	 */
+	CpuPartitions(List<Integer> cpus, Path lockDirectory) {
+		this.cpus = List.copyOf(cpus);
+		this.lockDirectory = lockDirectory;
+	}
+
+	/**
+	 * Determines if servers can be pinned to CPUs, which requires Linux and
+	 * {@code taskset} to be on the {@code PATH}.
+	 * @return true if servers can be pinned to CPUs
+	 */
+	static boolean isAffinitySupported() {
+		return Taskset.executable != null;
+	}
+
+	/**
+	 * Reserves CPUs that are not reserved by any other server of this or any other JVM.
+	 * @param processors the number of CPUs to reserve
+	 * @return the {@link Partition} which has no CPUs if there are not enough free CPUs
+	 */
+	synchronized Partition reserve(int processors) {
+		List<Integer> cpus = new ArrayList<>();
+		List<FileLock> locks = new ArrayList<>();
+		for (Integer cpu : this.cpus) {
+			if (cpus.size() == processors) {
+				break;
+			}
+			FileLock lock = (this.reserved.contains(cpu)) ? null : tryLock(cpu);
+			if (lock != null) {
+				cpus.add(cpu);
+				locks.add(lock);
+			}
+		}
+		if (cpus.size() < processors) {
+			locks.forEach(CpuPartitions::unlock);
+			logger.info(LogMessage.format("Not pinning the server to %d CPUs since only %d of %s are free", processors,
+					cpus.size(), this.cpus));
+			return new Partition(this, List.of(), List.of());
+		}
+		this.reserved.addAll(cpus);
+		return new Partition(this, cpus, locks);
+	}
+
+	/**
+	 * Locks the lock file of a CPU, unless it is locked by another JVM (or by another
+	 * {@link CpuPartitions} of the current JVM).
+	 * @param cpu the CPU to lock
+	 * @return the lock or {@code null} if the CPU is not free
+	 */
+	private FileLock tryLock(int cpu) {
+		Path lockFile = this.lockDirectory.resolve("cpu-" + cpu + ".lock");
+		FileChannel channel = null;
+		try {
+			Files.createDirectories(this.lockDirectory);
+			channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+			FileLock lock = channel.tryLock();
+			if (lock != null) {
+				return lock;
+			}
+		}
+		catch (IOException | OverlappingFileLockException ex) {
+			logger.debug(LogMessage.format("Unable to lock %s", lockFile), ex);
+		}
+		if (channel != null) {
+			close(channel);
+		}
+		return null;
+	}
+
+	private synchronized void release(List<Integer> cpus, List<FileLock> locks) {
+		locks.forEach(CpuPartitions::unlock);
+		this.reserved.removeAll(cpus);
+	}
+
+	private static void unlock(FileLock lock) {
+		close(lock.channel());
+	}
+
+	private static void close(FileChannel channel) {
+		try {
+			channel.close();
+		}
+		catch (IOException ex) {
+			logger.debug("Unable to close a CPU lock file", ex);
+		}
+	}
+
+	/**
+	 * Reads the CPUs the current JVM may run on from the {@code Cpus_allowed_list} of
+	 * {@code /proc/self/status} (e.g. {@code 0-3,8}), falling back to as many CPUs as
+	 * are available to the JVM.
+	 * @return the CPUs
+	 */
+	private static List<Integer> readAllowedCpus() {
+		Path status = Path.of("/proc/self/status");
+		if (Files.isReadable(status)) {
+			try {
+				for (String line : Files.readAllLines(status)) {
+					if (line.startsWith("Cpus_allowed_list:")) {
+						return parseCpuList(line.substring(line.indexOf(':') + 1).trim());
+					}
+				}
+			}
+			catch (IOException | RuntimeException ex) {
+				logger.debug("Unable to read the allowed CPUs from " + status, ex);
+			}
+		}
+		return IntStream.range(0, Runtime.getRuntime().availableProcessors()).boxed().toList();
+	}
+
+	/**
+	 * Parses a CPU list (e.g. {@code 0-3,8}).
+	 * @param cpuList the CPU list
+	 * @return the CPUs
+	 */
+	static List<Integer> parseCpuList(String cpuList) {
+		List<Integer> cpus = new ArrayList<>();
+		for (String range : cpuList.split(",")) {
+			String[] bounds = range.trim().split("-");
+			int start = Integer.parseInt(bounds[0]);
+			int end = (bounds.length > 1) ? Integer.parseInt(bounds[1]) : start;
+			IntStream.rangeClosed(start, end).forEach(cpus::add);
+		}
+		return cpus;
+	}
+
+	/**
+	 * CPUs that are reserved for a server until they are released.
+	 */
+	static final class Partition {
+
+		private final CpuPartitions partitions;
+
+		private final List<Integer> cpus;
+
+		private final List<FileLock> locks;
+
+		private final AtomicBoolean released = new AtomicBoolean();
+
+		private Partition(CpuPartitions partitions, List<Integer> cpus, List<FileLock> locks) {
+			this.partitions = partitions;
+			this.cpus = List.copyOf(cpus);
+			this.locks = List.copyOf(locks);
+		}
+
+		List<Integer> getCpus() {
+			return this.cpus;
+		}
+
+		/**
+		 * Pins the command to the CPUs of this partition by prefixing it with
+		 * {@code taskset}.
+		 * @param commandLine the command to pin
+		 * @return the pinned command or the command if this partition has no CPUs
+		 */
+		CommandLine pin(CommandLine commandLine) {
+			if (this.cpus.isEmpty()) {
+				return commandLine;
+			}
+			CommandLine pinned = new CommandLine(Taskset.executable);
+			pinned.addArgument("--cpu-list", false);
+			pinned.addArgument(this.cpus.stream().map(String::valueOf).collect(Collectors.joining(",")), false);
+			pinned.addArgument(commandLine.getExecutable(), false);
+			pinned.addArguments(commandLine.getArguments(), false);
+			return pinned;
+		}
+
+		/**
+		 * Releases the CPUs, so that they can be reserved by another server. Only the
+		 * first invocation has an effect.
+		 */
+		void release() {
+			if (this.partitions != null && this.released.compareAndSet(false, true)) {
+				this.partitions.release(this.cpus, this.locks);
+			}
+		}
+
+	}
+
+	/**
+	 * Holds the path of {@code taskset}, so that the {@code PATH} is only searched once
+	 * affinity is used.
+	 */
+	private static final class Taskset {
+
+		private static final String executable = find();
+
+		private static String find() {
+			String path = System.getenv("PATH");
+			if (!System.getProperty("os.name").toLowerCase().contains("linux") || path == null) {
+				return null;
+			}
+			for (String directory : path.split(File.pathSeparator)) {
+				File taskset = new File(directory, "taskset");
+				if (taskset.canExecute()) {
+					return taskset.getAbsolutePath();
+				}
+			}
+			return null;
+		}
+
+	}
+
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2012-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.experimental.boot.server.exec;
+
+import java.util.concurrent.ThreadFactory;
+
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.util.CustomizableThreadCreator;
+
+/**
+ * Creates the threads that wait on the servers (e.g. for the port file, the exit of a
+ * process or its output). Most of these threads spend their life blocked, so on JDK 21+
+ * virtual threads are used and launching many servers does not create a platform thread
+ * for each wait. Otherwise daemon platform threads are used. Threads that block in
+ * native code (e.g. waiting for a process to exit or reading its output) would pin the
+ * carrier thread of a virtual thread on JDK 21 to 23, so they are always daemon platform
+ * threads.
+ * <p>
+ * Virtual threads can be disabled by setting the {@code testjars.virtual-threads}
+ * system property of the JVM that runs the tests to {@code false}.
+ *
+ * @author Rob Winch
+ */
+final class ExecThreads {
+
+	static final String VIRTUAL_THREADS_PROPERTY = "testjars.virtual-threads";
+
+	private static final int VIRTUAL_THREADS_FEATURE_VERSION = 21;
+
+	/**
+	 * Creates a {@link SimpleAsyncTaskExecutor} that runs every task on a new thread.
+	 * @param threadNamePrefix the prefix of the thread names
+	 * @return the {@link SimpleAsyncTaskExecutor}
+	 */
+	static SimpleAsyncTaskExecutor executor(String threadNamePrefix) {
+		SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+		executor.setDaemon(true);
+		executor.setVirtualThreads(isVirtual());
+		return executor;
+	}
+
+	/**
+	 * Creates a {@link ThreadFactory} of daemon platform threads for code that blocks in
+	 * native code (e.g. {@link Process#waitFor()} or reading the output of a process),
+	 * which would pin the carrier thread of a virtual thread.
+	 * @param threadNamePrefix the prefix of the thread names
+	 * @return the {@link ThreadFactory}
+	 */
+	static ThreadFactory platformThreadFactory(String threadNamePrefix) {
+		CustomizableThreadCreator threadCreator = new CustomizableThreadCreator(threadNamePrefix);
+		threadCreator.setDaemon(true);
+		return threadCreator::createThread;
+	}
+
+	/**
+	 * Determines if virtual threads are used.
+	 * @return true if the JVM supports virtual threads and they are not disabled
+	 */
+	static boolean isVirtual() {
+		return Runtime.version().feature() >= VIRTUAL_THREADS_FEATURE_VERSION
+				&& Boolean.parseBoolean(System.getProperty(VIRTUAL_THREADS_PROPERTY, "true"));
+	}
+
+	private ExecThreads() {
+	}
+
+}
@@ -0,0 +1,300 @@
+/*
+ * Copyright 2012-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.experimental.boot.server.exec;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.log.LogMessage;
+
+/**
+ * A {@link Process} that runs the application inside the current JVM using an isolated
+ * {@link URLClassLoader} (see {@link LayeredClassLoaders}). The main method is invoked
+ * on a dedicated thread.
+ * <p>
+ * System properties are global to the JVM, so they are passed to the application as
+ * command line arguments (e.g. {@code --server.port=0}) instead. The port cannot be
+ * written by the application because the {@code PORTFILE} system property would be
+ * shared by every application in the JVM, so it is read from the
+ * {@code SpringApplicationAdminMXBean} of the application and written to the port file
+ * on its behalf. The application is stopped using the same MBean.
+ *
+ * @author Rob Winch
+ */
+final class InProcessApplication extends Process {
+
+	private static final Log logger = LogFactory.getLog(InProcessApplication.class);
+
+	private static final String PORT_FILE_PROPERTY = "PORTFILE";
+
+	private static final String JMX_DOMAIN = "org.springframework.experimental.boot.testjars";
+
+	private static final AtomicInteger ids = new AtomicInteger();
+
+	private final MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+
+	private final URLClassLoader classLoader;
+
+	private final String mainClass;
+
+	private final List<String> args;
+
+	private final Path portFile;
+
+	private final ObjectName adminName;
+
+	private final Thread mainThread;
+
+	private final PipedOutputStream errorOutput = new PipedOutputStream();
+
+	private final InputStream errorStream;
+
+	private final CompletableFuture<Process> exit = new CompletableFuture<>();
+
+	private volatile int exitValue;
+
+	private InProcessApplication(String name, List<String> classpath, boolean shareLibraries, String mainClass,
+			Map<String, String> systemProperties) throws IOException {
+		int id = ids.incrementAndGet();
+		this.classLoader = LayeredClassLoaders.create(classpath, shareLibraries);
+		this.mainClass = mainClass;
+		this.adminName = objectName(JMX_DOMAIN + ":type=InProcessApplication,id=" + id);
+		this.portFile = Path.of(systemProperties.get(PORT_FILE_PROPERTY));
+		this.args = createArgs(systemProperties, this.adminName);
+		this.errorStream = new PipedInputStream(this.errorOutput, 64 * 1024);
+		this.mainThread = new Thread(this::run, "testjars-in-process-" + ((name != null) ? name + "-" : "") + id);
+		this.mainThread.setContextClassLoader(this.classLoader);
+	}
+
+	/**
+	 * Starts the application on a new thread.
+	 * @param name the name of the application used to name the thread
+	 * @param classpath the classpath entries of the application
+	 * @param shareLibraries true if the jars on the classpath should be loaded by a
+	 * library class loader that is shared with other applications
+	 * @param mainClass the main class to run
+	 * @param systemProperties the system properties of the application which must
+	 * include {@code PORTFILE}
+	 * @return the started application
+	 * @throws IOException if the class loader cannot be created
+	 */
+	static InProcessApplication start(String name, List<String> classpath, boolean shareLibraries, String mainClass,
+			Map<String, String> systemProperties) throws IOException {
+		InProcessApplication application = new InProcessApplication(name, classpath, shareLibraries, mainClass,
+				systemProperties);
+		if (logger.isDebugEnabled()) {
+			logger.debug(LogMessage.format("Running %s in process with arguments %s", mainClass, application.args));
+		}
+		application.mainThread.start();
+		return application;
+	}
+
+	/**
+	 * Passes the system properties as command line arguments. The JVM wide shutdown hook
+	 * is disabled so that the class loader can be collected once the application is
+	 * stopped.
+	 * @param systemProperties the system properties to pass
+	 * @param adminName the name to register the {@code SpringApplicationAdminMXBean} with
+	 * @return the command line arguments
+	 */
+	private static List<String> createArgs(Map<String, String> systemProperties, ObjectName adminName) {
+		List<String> args = new ArrayList<>();
+		systemProperties.forEach((key, value) -> {
+			if (!PORT_FILE_PROPERTY.equals(key)) {
+				args.add("--" + key + "=" + value);
+			}
+		});
+		args.add("--spring.application.admin.enabled=true");
+		args.add("--spring.application.admin.jmx-name=" + adminName);
+		args.add("--spring.main.register-shutdown-hook=false");
+		return args;
+	}
+
+	private void run() {
+		try {
+			Class<?> main = Class.forName(this.mainClass, false, this.classLoader);
+			Method mainMethod = main.getMethod("main", String[].class);
+			mainMethod.invoke(null, (Object) this.args.toArray(String[]::new));
+			String port = getLocalServerPort();
+			if (port == null) {
+				throw new IllegalStateException("The application did not report a port using the MBean "
+						+ this.adminName + ". Running in process requires a web application that uses "
+						+ "Spring Boot's auto-configuration");
+			}
+			writePortFile(port);
+		}
+		catch (InvocationTargetException ex) {
+			failed(ex.getCause());
+		}
+		catch (Throwable ex) {
+			failed(ex);
+		}
+	}
+
+	private String getLocalServerPort() throws JMException {
+		if (!this.mbeanServer.isRegistered(this.adminName)) {
+			return null;
+		}
+		return (String) this.mbeanServer.invoke(this.adminName, "getProperty", new Object[] { "local.server.port" },
+				new String[] { String.class.getName() });
+	}
+
+	private void writePortFile(String port) throws IOException {
+		Path tmp = this.portFile.resolveSibling(this.portFile.getFileName() + ".tmp");
+		Files.writeString(tmp, port);
+		ContentAddressedClasspath.moveAtomically(tmp, this.portFile);
+	}
+
+	private void failed(Throwable failure) {
+		try (PrintStream error = new PrintStream(this.errorOutput, true, StandardCharsets.UTF_8)) {
+			failure.printStackTrace(error);
+		}
+		stop(1);
+	}
+
+	/**
+	 * Closes the {@code ApplicationContext} using the {@code SpringApplicationAdminMXBean}
+	 * and the class loader.
+	 * @param exitValue the exit value to report
+	 */
+	private synchronized void stop(int exitValue) {
+		if (this.exit.isDone()) {
+			return;
+		}
+		try {
+			if (this.mbeanServer.isRegistered(this.adminName)) {
+				this.mbeanServer.invoke(this.adminName, "shutdown", null, null);
+			}
+		}
+		catch (JMException ex) {
+			logger.debug(LogMessage.format("Failed to shut down %s", this.adminName), ex);
+		}
+		if (this.mainThread.isAlive() && Thread.currentThread() != this.mainThread) {
+			this.mainThread.interrupt();
+		}
+		try {
+			this.classLoader.close();
+			this.errorOutput.close();
+		}
+		catch (IOException ex) {
+			logger.debug(LogMessage.format("Failed to close %s", this.classLoader), ex);
+		}
+		this.exitValue = exitValue;
+		this.exit.complete(this);
+	}
+
+	@Override
+	public OutputStream getOutputStream() {
+		return OutputStream.nullOutputStream();
+	}
+
+	/**
+	 * The application writes to the {@code System.out} of the current JVM directly.
+	 * @return an empty stream
+	 */
+	@Override
+	public InputStream getInputStream() {
+		return InputStream.nullInputStream();
+	}
+
+	/**
+	 * Contains the failure that stopped the application, if any.
+	 * @return the error stream
+	 */
+	@Override
+	public InputStream getErrorStream() {
+		return this.errorStream;
+	}
+
+	@Override
+	public int waitFor() throws InterruptedException {
+		try {
+			this.exit.get();
+		}
+		catch (ExecutionException ex) {
+			throw new IllegalStateException(ex);
+		}
+		return exitValue();
+	}
+
+	@Override
+	public int exitValue() {
+		if (!this.exit.isDone()) {
+			throw new IllegalThreadStateException("The application " + this.mainClass + " has not stopped");
+		}
+		return this.exitValue;
+	}
+
+	@Override
+	public void destroy() {
+		stop(0);
+	}
+
+	/**
+	 * The application runs in the current JVM.
+	 * @return the process id of the current JVM
+	 */
+	@Override
+	public long pid() {
+		return ProcessHandle.current().pid();
+	}
+
+	@Override
+	public boolean isAlive() {
+		return !this.exit.isDone();
+	}
+
+	@Override
+	public CompletableFuture<Process> onExit() {
+		return this.exit.copy();
+	}
+
+	private static ObjectName objectName(String name) {
+		try {
+			return new ObjectName(name);
+		}
+		catch (MalformedObjectNameException ex) {
+			throw new IllegalArgumentException(ex);
+		}
+	}
+
+}
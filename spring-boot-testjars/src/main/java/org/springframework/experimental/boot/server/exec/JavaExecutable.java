@@ -0,0 +1,160 @@
+/*
+ * Copyright 2012-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.experimental.boot.server.exec;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Provides information about a java executable without starting the application. The
+ * information is cached per executable.
+ *
+ * @author Rob Winch
+ */
+final class JavaExecutable {
+
+	private static final Map<String, JavaExecutable> executables = new ConcurrentHashMap<>();
+
+	private static final Pattern VERSION_PATTERN = Pattern
+			.compile("JAVA_RUNTIME_VERSION=\"([^\"]+)\"|version \"([^\"]+)\"");
+
+	private final String executable;
+
+	private final String identity;
+
+	private final Runtime.Version version;
+
+	private JavaExecutable(String executable) {
+		this.executable = executable;
+		this.identity = readIdentity(executable);
+		this.version = parseVersion(this.identity);
+	}
+
+	/**
+	 * Gets the {@link JavaExecutable} for the provided path.
+	 * @param executable the path to the java executable
+	 * @return the {@link JavaExecutable}
+	 */
+	static JavaExecutable of(String executable) {
+		return executables.computeIfAbsent(executable, JavaExecutable::new);
+	}
+
+	String getExecutable() {
+		return this.executable;
+	}
+
+	/**
+	 * A value that changes whenever the JVM that is used changes, suitable for use in a
+	 * fingerprint.
+	 * @return the identity of the JVM
+	 */
+	String getIdentity() {
+		return this.identity;
+	}
+
+	/**
+	 * The version of the JVM.
+	 * @return the version of the JVM or {@code null} if it cannot be determined
+	 */
+	Runtime.Version getVersion() {
+		return this.version;
+	}
+
+	/**
+	 * Gets the feature release number of the JVM (e.g. 17).
+	 * @return the feature release number of the JVM or 0 if it cannot be determined
+	 */
+	int getFeatureVersion() {
+		return (this.version != null) ? this.version.feature() : 0;
+	}
+
+	/**
+	 * Reads the {@code release} file of the java home, falling back to the output of
+	 * {@code java -version} if it does not exist.
+	 * @param executable the java executable
+	 * @return the identity of the JVM
+	 */
+	private static String readIdentity(String executable) {
+		Path bin = Path.of(executable).toAbsolutePath().getParent();
+		Path release = (bin != null && bin.getParent() != null) ? bin.getParent().resolve("release") : null;
+		try {
+			if (release != null && Files.isRegularFile(release)) {
+				return executable + "\n" + Files.readString(release);
+			}
+		}
+		catch (IOException ex) {
+			// fall back to java -version
+		}
+		return executable + "\n" + run(executable, "-version");
+	}
+
+	/**
+	 * Runs the java executable with the provided arguments and returns the output.
+	 * @param executable the java executable
+	 * @param arguments the arguments to pass
+	 * @return the combined standard output and standard error or an empty String if it
+	 * could not be run
+	 */
+	static String run(String executable, String... arguments) {
+		List<String> command = new ArrayList<>(List.of(arguments));
+		command.add(0, executable);
+		ProcessBuilder processBuilder = new ProcessBuilder(command).redirectErrorStream(true);
+		try {
+			Process process = processBuilder.start();
+			process.getOutputStream().close();
+			try (InputStream output = process.getInputStream()) {
+				String result = new String(output.readAllBytes(), Charset.defaultCharset());
+				if (!process.waitFor(30, TimeUnit.SECONDS)) {
+					process.destroyForcibly();
+				}
+				return result;
+			}
+		}
+		catch (IOException ex) {
+			return "";
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			return "";
+		}
+	}
+
+	private static Runtime.Version parseVersion(String identity) {
+		Matcher matcher = VERSION_PATTERN.matcher(identity);
+		if (!matcher.find()) {
+			return null;
+		}
+		String version = (matcher.group(1) != null) ? matcher.group(1) : matcher.group(2);
+		try {
+			return Runtime.Version.parse(version);
+		}
+		catch (IllegalArgumentException ex) {
+			return null;
+		}
+	}
+
+}
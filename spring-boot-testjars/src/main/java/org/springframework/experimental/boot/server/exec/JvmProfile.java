@@ -0,0 +1,80 @@
+/*
+ * Copyright 2012-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.experimental.boot.server.exec;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Named sets of JVM options that are used to launch the application.
+ *
+ * @author Rob Winch
+ * @see CommonsExecWebServerFactoryBean#jvmProfile(JvmProfile)
+ */
+public enum JvmProfile {
+
+	/**
+	 * Uses the defaults of the JVM.
+	 */
+	DEFAULT(false),
+
+	/**
+	 * Optimizes for short-lived applications that should start quickly and use as little
+	 * CPU and memory as possible. Only the C1 compiler is used, the Serial garbage
+	 * collector is used, the thread stack size is reduced, and CDS is used if it is
+	 * available. Compact object headers are enabled when the JVM supports them (JDK 25+).
+	 */
+	FAST_START(true, "-XX:TieredStopAtLevel=1", "-XX:+UseSerialGC", "-Xss512k", "-Xshare:auto"),
+
+	/**
+	 * Optimizes for load-oriented tests that run long enough to benefit from the C2
+	 * compiler. The Parallel garbage collector is used and compact object headers are
+	 * enabled when the JVM supports them (JDK 25+).
+	 */
+	THROUGHPUT(true, "-XX:+UseParallelGC");
+
+	/**
+	 * The first feature release that supports {@code -XX:+UseCompactObjectHeaders}
+	 * without unlocking experimental options.
+	 */
+	private static final int COMPACT_OBJECT_HEADERS_FEATURE_VERSION = 25;
+
+	private final boolean compactObjectHeaders;
+
+	private final List<String> jvmOptions;
+
+	JvmProfile(boolean compactObjectHeaders, String... jvmOptions) {
+		this.compactObjectHeaders = compactObjectHeaders;
+		this.jvmOptions = List.of(jvmOptions);
+	}
+
+	/**
+	 * Gets the JVM options of this profile that are supported by the java executable.
+	 * @param executable the java executable
+	 * @return the JVM options to use
+	 */
+	List<String> getJvmOptions(String executable) {
+		if (!this.compactObjectHeaders
+				|| JavaExecutable.of(executable).getFeatureVersion() < COMPACT_OBJECT_HEADERS_FEATURE_VERSION) {
+			return this.jvmOptions;
+		}
+		List<String> jvmOptions = new ArrayList<>(this.jvmOptions);
+		jvmOptions.add("-XX:+UseCompactObjectHeaders");
+		return jvmOptions;
+	}
+
+}
@@ -0,0 +1,361 @@
+/*
+ * Copyright 2012-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.experimental.boot.server.exec;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.ProcessBuilder.Redirect;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.commons.exec.CommandLine;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.log.LogMessage;
+import org.springframework.experimental.boot.server.exec.detector.KeepAliveMain;
+
+/**
+ * Keeps an application alive between test runs, so that a later JVM that needs an
+ * identical application attaches to the running process instead of launching a new one.
+ * <p>
+ * The directory contains the following files for every fingerprint:
+ * <ul>
+ * <li>{@code <fingerprint>.server} the pid, start time, fingerprint and port file of the
+ * running process</li>
+ * <li>{@code <fingerprint>.port} the port the process is listening on</li>
+ * <li>{@code <fingerprint>.<pid>.lease} a lease held by the JVM with the pid. The lease
+ * is renewed every {@link KeepAliveMain#HEARTBEAT_INTERVAL} while it is held by any
+ * {@link KeepAlive} of the JVM.</li>
+ * <li>{@code <fingerprint>.log} the output of the process, which is appended to since
+ * the process outlives the JVM that launched it</li>
+ * <li>{@code <fingerprint>.lock} locked while deciding to attach or launch, and by the
+ * process before it exits due to being idle</li>
+ * </ul>
+ * The process runs {@link KeepAliveMain}, which exits once no lease has been held for the
+ * idle timeout.
+ *
+ * @author Rob Winch
+ */
+final class KeepAlive {
+
+	private static final Log logger = LogFactory.getLog(KeepAlive.class);
+
+	private static final Map<String, Object> locks = new ConcurrentHashMap<>();
+
+	private static final Map<Path, Integer> heldLeases = new ConcurrentHashMap<>();
+
+	private static final ScheduledExecutorService heartbeat = createHeartbeat();
+
+	private final Path directory;
+
+	private final String fingerprint;
+
+	private final Duration idleTimeout;
+
+	private final Path leaseFile;
+
+	private final AtomicBoolean leased = new AtomicBoolean();
+
+	KeepAlive(Path directory, String fingerprint, Duration idleTimeout) {
+		this.directory = directory;
+		this.fingerprint = fingerprint;
+		this.idleTimeout = idleTimeout;
+		this.leaseFile = directory.resolve(fingerprint + "." + ProcessHandle.current().pid() + ".lease");
+	}
+
+	private static ScheduledExecutorService createHeartbeat() {
+		ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor((runnable) -> {
+			Thread thread = new Thread(runnable, "testjars-keep-alive-heartbeat");
+			thread.setDaemon(true);
+			return thread;
+		});
+		long interval = KeepAliveMain.HEARTBEAT_INTERVAL.toMillis();
+		heartbeat.scheduleAtFixedRate(KeepAlive::renewLeases, interval, interval, TimeUnit.MILLISECONDS);
+		return heartbeat;
+	}
+
+	/**
+	 * Gets the file that the process writes its port to.
+	 * @return the port file
+	 */
+	Path getPortFile() {
+		return this.directory.resolve(this.fingerprint + ".port");
+	}
+
+	/**
+	 * Gets the file that the output of the process is appended to.
+	 * @return the log file
+	 */
+	Path getLogFile() {
+		return this.directory.resolve(this.fingerprint + ".log");
+	}
+
+	/**
+	 * Gets the system properties that run the main class using {@link KeepAliveMain}.
+	 * @param mainClass the main class of the application
+	 * @return the system properties to use
+	 */
+	Map<String, String> getSystemProperties(String mainClass) {
+		return Map.of("PORTFILE", getPortFile().toAbsolutePath().toString(), KeepAliveMain.DIRECTORY,
+				this.directory.toAbsolutePath().toString(), KeepAliveMain.FINGERPRINT, this.fingerprint,
+				KeepAliveMain.IDLE_TIMEOUT, this.idleTimeout.toString(), KeepAliveMain.MAIN_CLASS, mainClass);
+	}
+
+	/**
+	 * Creates a {@link ProcessLauncher} that uses {@link #attachOrLaunch(CommandLine)}.
+	 * The process outlives the current JVM, so it is not reaped as an orphan and its
+	 * output is read from the log file.
+	 * @param commandLine the command that runs {@link KeepAliveMain}
+	 * @return the {@link ProcessLauncher}
+	 */
+	ProcessLauncher launcher(CommandLine commandLine) {
+		return new ProcessLauncher() {
+
+			@Override
+			public Process launch() throws IOException {
+				return attachOrLaunch(commandLine);
+			}
+
+			@Override
+			public File getOutputFile() {
+				return getLogFile().toFile();
+			}
+
+			@Override
+			public boolean outlivesOwner() {
+				return true;
+			}
+
+		};
+	}
+
+	/**
+	 * Acquires a lease and attaches to the running process with the fingerprint, or
+	 * launches the command if there is no running process.
+	 * @param commandLine the command that runs {@link KeepAliveMain}
+	 * @return the attached or launched process
+	 * @throws IOException if the process cannot be launched
+	 */
+	Process attachOrLaunch(CommandLine commandLine) throws IOException {
+		synchronized (locks.computeIfAbsent(this.fingerprint, (key) -> new Object())) {
+			Files.createDirectories(this.directory);
+			Path lockFile = this.directory.resolve(this.fingerprint + ".lock");
+			try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE,
+					StandardOpenOption.WRITE); FileLock lock = channel.lock()) {
+				acquireLease();
+				Optional<ProcessHandle> server = findServer();
+				if (server.isPresent()) {
+					logger.info(LogMessage.format("Attaching to process %d that is running %s", server.get().pid(),
+							this.fingerprint));
+					return new AttachedProcess(server.get());
+				}
+				Files.deleteIfExists(getPortFile());
+				Process process = new ProcessBuilder(commandLine.toStrings()).redirectErrorStream(true)
+						.redirectOutput(Redirect.appendTo(getLogFile().toFile())).start();
+				logger.info(LogMessage.format("Launched process %d that is running %s with its output in %s",
+						process.pid(), this.fingerprint, getLogFile()));
+				writeServer(process.toHandle());
+				return process;
+			}
+		}
+	}
+
+	/**
+	 * Releases the lease so that the process exits once it has been idle for the idle
+	 * timeout. The lease file is shared by every {@link KeepAlive} of the current JVM with
+	 * the same fingerprint, so it is only deleted once all of them released it.
+	 */
+	void release() {
+		if (!this.leased.compareAndSet(true, false)) {
+			return;
+		}
+		heldLeases.computeIfPresent(this.leaseFile, (lease, holders) -> {
+			if (holders > 1) {
+				return holders - 1;
+			}
+			try {
+				Files.deleteIfExists(lease);
+			}
+			catch (IOException ex) {
+				// the lease expires since it is no longer renewed
+			}
+			return null;
+		});
+	}
+
+	private void acquireLease() throws IOException {
+		if (this.leased.compareAndSet(false, true)) {
+			heldLeases.merge(this.leaseFile, 1, Integer::sum);
+		}
+		if (!Files.exists(this.leaseFile)) {
+			Files.createFile(this.leaseFile);
+		}
+		Files.setLastModifiedTime(this.leaseFile, FileTime.from(Instant.now()));
+	}
+
+	private static void renewLeases() {
+		FileTime now = FileTime.from(Instant.now());
+		for (Path lease : heldLeases.keySet()) {
+			try {
+				Files.setLastModifiedTime(lease, now);
+			}
+			catch (IOException ex) {
+				logger.debug(LogMessage.format("Failed to renew lease %s", lease), ex);
+			}
+		}
+	}
+
+	private Optional<ProcessHandle> findServer() throws IOException {
+		Path serverFile = this.directory.resolve(this.fingerprint + ".server");
+		if (!Files.exists(serverFile)) {
+			return Optional.empty();
+		}
+		Properties server = new Properties();
+		try (Reader reader = Files.newBufferedReader(serverFile, StandardCharsets.UTF_8)) {
+			server.load(reader);
+		}
+		long pid = Long.parseLong(server.getProperty("pid"));
+		String start = server.getProperty("start", "");
+		return ProcessHandle.of(pid)
+				.filter(ProcessHandle::isAlive)
+				.filter((process) -> start.equals(startInstant(process)));
+	}
+
+	private void writeServer(ProcessHandle process) throws IOException {
+		Properties server = new Properties();
+		server.setProperty("pid", String.valueOf(process.pid()));
+		server.setProperty("start", startInstant(process));
+		server.setProperty("fingerprint", this.fingerprint);
+		server.setProperty("port-file", getPortFile().toAbsolutePath().toString());
+		try (Writer writer = Files.newBufferedWriter(this.directory.resolve(this.fingerprint + ".server"),
+				StandardCharsets.UTF_8)) {
+			server.store(writer, null);
+		}
+	}
+
+	/**
+	 * The start time is recorded with the pid, so that a process that reuses the pid is
+	 * not mistaken for the server.
+	 * @param process the process
+	 * @return the start time of the process or an empty String if it is unknown
+	 */
+	private static String startInstant(ProcessHandle process) {
+		return process.info().startInstant().map(Instant::toString).orElse("");
+	}
+
+	/**
+	 * A {@link Process} that was started by another JVM. The output of the process is not
+	 * available and its exit value is unknown.
+	 */
+	private static final class AttachedProcess extends Process {
+
+		private final ProcessHandle handle;
+
+		AttachedProcess(ProcessHandle handle) {
+			this.handle = handle;
+		}
+
+		@Override
+		public OutputStream getOutputStream() {
+			return OutputStream.nullOutputStream();
+		}
+
+		@Override
+		public InputStream getInputStream() {
+			return InputStream.nullInputStream();
+		}
+
+		@Override
+		public InputStream getErrorStream() {
+			return InputStream.nullInputStream();
+		}
+
+		@Override
+		public int waitFor() throws InterruptedException {
+			try {
+				this.handle.onExit().get();
+			}
+			catch (ExecutionException ex) {
+				throw new IllegalStateException(ex);
+			}
+			return exitValue();
+		}
+
+		@Override
+		public int exitValue() {
+			if (this.handle.isAlive()) {
+				throw new IllegalThreadStateException("The process " + this.handle.pid() + " has not exited");
+			}
+			return -1;
+		}
+
+		@Override
+		public void destroy() {
+			this.handle.destroy();
+		}
+
+		@Override
+		public Process destroyForcibly() {
+			this.handle.destroyForcibly();
+			return this;
+		}
+
+		@Override
+		public long pid() {
+			return this.handle.pid();
+		}
+
+		@Override
+		public ProcessHandle toHandle() {
+			return this.handle;
+		}
+
+		@Override
+		public boolean isAlive() {
+			return this.handle.isAlive();
+		}
+
+		@Override
+		public CompletableFuture<Process> onExit() {
+			return this.handle.onExit().thenApply((handle) -> this);
+		}
+
+	}
+
+}
@@ -0,0 +1,266 @@
+/*
+ * Copyright 2012-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.experimental.boot.server.exec;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.log.LogMessage;
+
+/**
+ * Creates the class loaders of the applications that run in process. When libraries are
+ * shared, the jars on the classpath are loaded by a parent-first library class loader
+ * that is shared with every other application whose classpath contains jars with
+ * identical content, and only the remaining entries (e.g. the directories created by
+ * testjars) are loaded by a class loader for the application. This means the classes of
+ * the libraries occupy metaspace and are JIT compiled only once.
+ * <p>
+ * A library class loader is only used by an application whose classpath contains all of
+ * its jars, so an application never sees classes that are not on its classpath. The jars
+ * that an application has in common with an existing library class loader are loaded by
+ * a shared library class loader for just those jars, and the jars that differ are loaded
+ * by a library class loader whose parent is the shared one. Library class loaders are
+ * reference counted and closed once no application that runs in process uses them.
+ *
+ * @author Rob Winch
+ */
+final class LayeredClassLoaders {
+
+	private static final Log logger = LogFactory.getLog(LayeredClassLoaders.class);
+
+	private static final List<LibraryClassLoader> libraryClassLoaders = new ArrayList<>();
+
+	private static final Map<String, String> checksums = new ConcurrentHashMap<>();
+
+	private static final String NOT_A_LIBRARY = "";
+
+	/**
+	 * Creates the class loader for an application.
+	 * @param classpath the classpath entries of the application
+	 * @param shareLibraries true if the jars should be loaded by a shared library class
+	 * loader
+	 * @return the class loader for the application
+	 * @throws IOException if the classpath cannot be read
+	 */
+	static URLClassLoader create(List<String> classpath, boolean shareLibraries) throws IOException {
+		if (!shareLibraries) {
+			return new URLClassLoader(urls(classpath), ClassLoader.getPlatformClassLoader());
+		}
+		Map<String, String> libraries = new LinkedHashMap<>();
+		List<String> application = new ArrayList<>();
+		for (String entry : classpath) {
+			String checksum = checksum(Path.of(entry));
+			if (!NOT_A_LIBRARY.equals(checksum)) {
+				libraries.putIfAbsent(checksum, entry);
+			}
+			else {
+				application.add(entry);
+			}
+		}
+		ClassLoader parent = getLibraryClassLoader(libraries.keySet(), libraries);
+		return new ApplicationClassLoader(urls(application), parent);
+	}
+
+	/**
+	 * Gets a library class loader that loads exactly the provided jars, creating it if
+	 * necessary. The library class loader is acquired for the caller and must be
+	 * released with {@link #release(ClassLoader)}.
+	 * @param required the checksums of the jars to load
+	 * @param libraries the jars of the application mapped from their checksum to their
+	 * location
+	 * @return the library class loader
+	 * @throws IOException if the classpath cannot be read
+	 */
+	private static synchronized ClassLoader getLibraryClassLoader(Set<String> required,
+			Map<String, String> libraries) throws IOException {
+		if (required.isEmpty()) {
+			return ClassLoader.getPlatformClassLoader();
+		}
+		LibraryClassLoader parent = null;
+		Set<String> common = Set.of();
+		for (LibraryClassLoader candidate : libraryClassLoaders) {
+			if (required.containsAll(candidate.checksums)
+					&& (parent == null || candidate.checksums.size() > parent.checksums.size())) {
+				parent = candidate;
+			}
+			Set<String> shared = new LinkedHashSet<>(required);
+			shared.retainAll(candidate.checksums);
+			if (shared.size() > common.size()) {
+				common = shared;
+			}
+		}
+		if (parent != null && parent.checksums.size() == required.size()) {
+			parent.users++;
+			return parent;
+		}
+		ClassLoader sharedParent;
+		int inheritedSize = (parent != null) ? parent.checksums.size() : 0;
+		if (common.size() > inheritedSize && common.size() < required.size()) {
+			sharedParent = getLibraryClassLoader(common, libraries);
+		}
+		else if (parent != null) {
+			parent.users++;
+			sharedParent = parent;
+		}
+		else {
+			sharedParent = ClassLoader.getPlatformClassLoader();
+		}
+		Set<String> inherited = (sharedParent instanceof LibraryClassLoader library) ? library.checksums : Set.of();
+		List<String> additional = new ArrayList<>();
+		for (String checksum : required) {
+			if (!inherited.contains(checksum)) {
+				additional.add(libraries.get(checksum));
+			}
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug(LogMessage.format("Creating a library class loader with parent %s for %s", sharedParent,
+					additional));
+		}
+		LibraryClassLoader libraryClassLoader = new LibraryClassLoader(required, urls(additional), sharedParent);
+		libraryClassLoaders.add(libraryClassLoader);
+		return libraryClassLoader;
+	}
+
+	/**
+	 * Releases a library class loader that was acquired with
+	 * {@link #getLibraryClassLoader(Set, Map)}, closing it and releasing its parent once
+	 * it is no longer used.
+	 * @param classLoader the class loader to release
+	 */
+	private static synchronized void release(ClassLoader classLoader) {
+		if (!(classLoader instanceof LibraryClassLoader library) || --library.users > 0) {
+			return;
+		}
+		libraryClassLoaders.remove(library);
+		try {
+			library.close();
+		}
+		catch (IOException ex) {
+			logger.debug(LogMessage.format("Failed to close %s", library), ex);
+		}
+		release(library.getParent());
+	}
+
+	/**
+	 * Gets the checksum of a jar that can be shared. Directories and Spring Boot
+	 * executable jars are not shared, since they contain the classes and resources of
+	 * the application. Spring Boot loads the nested jars of an executable jar with its
+	 * own class loader whose parent is the class loader of the executable jar, so the
+	 * executable jar must be loaded by the class loader of the application.
+	 * @param path the classpath entry
+	 * @return the checksum or {@link #NOT_A_LIBRARY}
+	 */
+	private static String checksum(Path path) {
+		if (!Files.isRegularFile(path)) {
+			return NOT_A_LIBRARY;
+		}
+		File file = path.toFile();
+		String key = file.getAbsolutePath() + ":" + file.length() + ":" + file.lastModified();
+		return checksums.computeIfAbsent(key,
+				(k) -> isExecutableJar(path) ? NOT_A_LIBRARY : ContentAddressedClasspath.hashFile(path));
+	}
+
+	private static boolean isExecutableJar(Path path) {
+		try (JarFile jar = new JarFile(path.toFile())) {
+			Manifest manifest = jar.getManifest();
+			return manifest != null && manifest.getMainAttributes().getValue("Start-Class") != null;
+		}
+		catch (IOException ex) {
+			return true;
+		}
+	}
+
+	private static URL[] urls(List<String> classpath) throws IOException {
+		URL[] urls = new URL[classpath.size()];
+		for (int i = 0; i < urls.length; i++) {
+			urls[i] = Path.of(classpath.get(i)).toUri().toURL();
+		}
+		return urls;
+	}
+
+	private LayeredClassLoaders() {
+	}
+
+	/**
+	 * A parent-first class loader for jars that are shared by applications.
+	 */
+	static final class LibraryClassLoader extends URLClassLoader {
+
+		static {
+			ClassLoader.registerAsParallelCapable();
+		}
+
+		private final Set<String> checksums;
+
+		private int users = 1;
+
+		LibraryClassLoader(Set<String> checksums, URL[] urls, ClassLoader parent) {
+			super("testjars-library", urls, parent);
+			this.checksums = new HashSet<>(checksums);
+		}
+
+	}
+
+	/**
+	 * The class loader of an application that releases its library class loader when it
+	 * is closed.
+	 */
+	static final class ApplicationClassLoader extends URLClassLoader {
+
+		static {
+			ClassLoader.registerAsParallelCapable();
+		}
+
+		private final AtomicBoolean closed = new AtomicBoolean();
+
+		ApplicationClassLoader(URL[] urls, ClassLoader parent) {
+			super(urls, parent);
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				super.close();
+			}
+			finally {
+				if (this.closed.compareAndSet(false, true)) {
+					release(getParent());
+				}
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2012-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.experimental.boot.server.exec;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.log.LogMessage;
+import org.springframework.util.Assert;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * A budget of memory that is shared by the JVMs of the servers that are launched by the
+ * current JVM, so that launching many servers at once does not overcommit the memory of
+ * the host (each JVM would otherwise size its heap based on the memory of the host).
+ * <p>
+ * There is a single budget for the current JVM, which is accounted in bytes. Every server
+ * computes its memory from the total, its number of shares and its weight, and the memory
+ * is divided into the maximum heap ({@code -Xmx}), the maximum metaspace
+ * ({@code -XX:MaxMetaspaceSize}) and the reserved code cache
+ * ({@code -XX:ReservedCodeCacheSize}) of its JVM. A server reserves its memory before it
+ * is launched and releases it once its process has exited. A launch that would exceed
+ * the budget waits for other servers to release their memory, and fails if it is not
+ * released within the timeout.
+ *
+ * @author Rob Winch
+ */
+final class MemoryBudget {
+
+	private static final Log logger = LogFactory.getLog(MemoryBudget.class);
+
+	private static final DataSize MINIMUM_MEMORY = DataSize.ofMegabytes(64);
+
+	private static final DataSize MAXIMUM_CODE_CACHE = DataSize.ofMegabytes(240);
+
+	private static MemoryBudget instance;
+
+	private final DataSize total;
+
+	private long reserved;
+
+	/**
+	 * Creates a new instance.
+	 * @param total the total amount of memory of the budget
+	 */
+	MemoryBudget(DataSize total) {
+		this.total = total;
+	}
+
+	/**
+	 * Gets the budget of the current JVM, creating it with the provided total if
+	 * necessary.
+	 * @param total the total amount of memory of the budget
+	 * @return the budget
+	 * @throws IllegalStateException if the budget was created with a different total
+	 */
+	static synchronized MemoryBudget get(DataSize total) {
+		if (instance == null) {
+			instance = new MemoryBudget(total);
+		}
+		else if (instance.total.toBytes() != total.toBytes()) {
+			throw new IllegalStateException("The memory budget of the current JVM is " + toMegabytes(instance.total)
+					+ "MB, so it cannot be " + toMegabytes(total) + "MB. Use the same total for every memory budget");
+		}
+		return instance;
+	}
+
+	/**
+	 * Gets the default total amount of memory of the budget, which is half of the
+	 * physical memory of the host.
+	 * @return the default total
+	 */
+	static DataSize defaultTotal() {
+		OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+		if (os instanceof com.sun.management.OperatingSystemMXBean hostOs) {
+			return DataSize.ofBytes(hostOs.getTotalMemorySize() / 2);
+		}
+		return DataSize.ofBytes(Runtime.getRuntime().maxMemory());
+	}
+
+	/**
+	 * Computes the memory of a server that uses {@code weight} of {@code shares} shares
+	 * of the total.
+	 * @param shares the number of shares the total is divided into
+	 * @param weight the number of shares the server uses
+	 * @return the memory of the server
+	 */
+	DataSize memory(int shares, int weight) {
+		Assert.isTrue(weight <= shares, "The weight " + weight + " exceeds the " + shares + " shares");
+		DataSize memory = DataSize.ofBytes(this.total.toBytes() / shares * weight);
+		Assert.isTrue(memory.toBytes() >= MINIMUM_MEMORY.toBytes(), weight + " of " + shares + " shares of "
+				+ toMegabytes(this.total) + "MB must be at least " + toMegabytes(MINIMUM_MEMORY) + "MB");
+		return memory;
+	}
+
+	/**
+	 * Creates the JVM options that limit the memory of a JVM. The metaspace gets 20% and
+	 * the code cache 10% (at most 240 MB, the default of the JVM) of the memory, and the
+	 * heap gets the rest.
+	 * @param memory the memory of the JVM
+	 * @return the JVM options
+	 */
+	static List<String> jvmOptions(DataSize memory) {
+		long bytes = memory.toBytes();
+		long codeCache = Math.min(bytes / 10, MAXIMUM_CODE_CACHE.toBytes());
+		long metaspace = bytes / 5;
+		long heap = bytes - metaspace - codeCache;
+		return List.of("-Xmx" + toMegabytes(heap) + "m", "-XX:MaxMetaspaceSize=" + toMegabytes(metaspace) + "m",
+				"-XX:ReservedCodeCacheSize=" + toMegabytes(codeCache) + "m");
+	}
+
+	/**
+	 * Reserves memory of the budget, waiting for other servers to release their memory
+	 * if there is not enough memory available.
+	 * @param memory the memory to reserve
+	 * @param timeout how long to wait for the memory to be available
+	 * @return releases the memory (only the first time it is run)
+	 * @throws IllegalStateException if the memory is not available within the timeout
+	 */
+	synchronized Runnable reserve(DataSize memory, Duration timeout) {
+		long bytes = memory.toBytes();
+		Assert.isTrue(bytes <= this.total.toBytes(), toMegabytes(memory) + "MB exceeds the memory budget of "
+				+ toMegabytes(this.total) + "MB");
+		long deadline = System.nanoTime() + timeout.toNanos();
+		if (this.reserved + bytes > this.total.toBytes()) {
+			logger.info(LogMessage.format("Waiting up to %s for %dMB of the memory budget of %dMB (%dMB in use)",
+					timeout, toMegabytes(memory), toMegabytes(this.total), toMegabytes(this.reserved)));
+		}
+		while (this.reserved + bytes > this.total.toBytes()) {
+			long remaining = deadline - System.nanoTime();
+			if (remaining <= 0) {
+				throw new IllegalStateException("Unable to reserve " + toMegabytes(memory)
+						+ "MB of the memory budget of " + toMegabytes(this.total) + "MB within " + timeout + " since "
+						+ toMegabytes(this.reserved) + "MB are used by servers that are running");
+			}
+			try {
+				wait(Math.max(1, remaining / 1_000_000));
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while waiting for the memory budget", ex);
+			}
+		}
+		this.reserved += bytes;
+		AtomicBoolean released = new AtomicBoolean();
+		return () -> {
+			if (released.compareAndSet(false, true)) {
+				release(bytes);
+			}
+		};
+	}
+
+	private synchronized void release(long bytes) {
+		this.reserved -= bytes;
+		notifyAll();
+	}
+
+	private static long toMegabytes(DataSize size) {
+		return toMegabytes(size.toBytes());
+	}
+
+	private static long toMegabytes(long bytes) {
+		return bytes / DataSize.ofMegabytes(1).toBytes();
+	}
+
+}
@@ -0,0 +1,294 @@
+/*
+ * Copyright 2012-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.experimental.boot.server.exec;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.log.LogMessage;
+import org.springframework.util.FileSystemUtils;
+
+/**
+ * Cleans up after JVMs that exited without destroying their processes or deleting their
+ * temp paths (e.g. because they were killed or an IDE stopped the tests).
+ * <p>
+ * Every JVM records the processes that it launches in a registry file named after its
+ * process id. The first JVM that uses testjars sweeps in the background once: the
+ * processes that are recorded in the registry file of a JVM that no longer exists are
+ * destroyed along with their descendants, and the temp paths (see {@link TempDir}) that
+ * have the process id of a JVM that no longer exists in their name are deleted. Every
+ * process is recorded with its start time, so that a process id that was reused by an
+ * unrelated process is never destroyed. A process whose start time is unknown is not
+ * recorded.
+ *
+ * @author Rob Winch
+ */
+final class OrphanReaper {
+
+	static final OrphanReaper INSTANCE = new OrphanReaper(Path.of(System.getProperty("java.io.tmpdir")));
+
+	private static final Log logger = LogFactory.getLog(OrphanReaper.class);
+
+	private static final Pattern TEMP_PATH_NAME = Pattern
+			.compile("(?:" + TempDir.CLASSPATH_PREFIX + "|" + TempDir.PORT_FILE_PREFIX + ")(\\d+)-.*");
+
+	private static final Pattern REGISTRY_FILE_NAME = Pattern.compile("(\\d+)\\.pids");
+
+	private static final long UNKNOWN_START = -1;
+
+	private final Path tempDirectory;
+
+	private final Path registryDirectory;
+
+	private final ProcessHandle owner;
+
+	private final Map<Long, Long> processes = new LinkedHashMap<>();
+
+	private final AtomicBoolean swept = new AtomicBoolean();
+
+	/**
+	 * Creates a new instance.
+	 * @param tempDirectory the directory that contains the temp paths of testjars
+	 */
+	OrphanReaper(Path tempDirectory) {
+		this(tempDirectory, ProcessHandle.current());
+	}
+
+	OrphanReaper(Path tempDirectory, ProcessHandle owner) {
+		this.tempDirectory = tempDirectory;
+		this.registryDirectory = tempDirectory.resolve("testjars-processes");
+		this.owner = owner;
+	}
+
+	/**
+	 * Records a process, so that it is destroyed by a later JVM if the current JVM exits
+	 * without destroying it. A process that runs in the current JVM or whose start time
+	 * is unknown is not recorded, since it could not be told apart from an unrelated
+	 * process that reused its process id.
+	 * @param process the process to record
+	 */
+	void register(Process process) {
+		ProcessHandle handle = toHandle(process);
+		if (handle == null || handle.pid() == this.owner.pid()) {
+			return;
+		}
+		long startMillis = startMillis(handle);
+		if (startMillis == UNKNOWN_START) {
+			logger.debug(LogMessage.format("Not recording process %d since its start time is unknown", handle.pid()));
+			return;
+		}
+		synchronized (this.processes) {
+			this.processes.put(handle.pid(), startMillis);
+			writeRegistry();
+		}
+	}
+
+	/**
+	 * Stops recording a process, e.g. because it has exited or is no longer owned by the
+	 * current JVM.
+	 * @param process the process to stop recording
+	 */
+	void unregister(Process process) {
+		ProcessHandle handle = toHandle(process);
+		if (handle == null) {
+			return;
+		}
+		synchronized (this.processes) {
+			if (this.processes.remove(handle.pid()) != null) {
+				writeRegistry();
+			}
+		}
+	}
+
+	/**
+	 * Sweeps in the background unless the current JVM already swept.
+	 */
+	void sweepInBackground() {
+		if (this.swept.compareAndSet(false, true)) {
+			ExecThreads.executor("testjars-reaper-").execute(this::sweep);
+		}
+	}
+
+	/**
+	 * Destroys the processes that are recorded by JVMs that no longer exist and deletes
+	 * their temp paths. Failures are logged, since the sweep is only best effort.
+	 */
+	void sweep() {
+		try {
+			reapProcesses();
+			deleteTempPaths();
+		}
+		catch (IOException | RuntimeException ex) {
+			logger.debug("Failed to sweep after JVMs that no longer exist", ex);
+		}
+	}
+
+	private void reapProcesses() throws IOException {
+		if (!Files.isDirectory(this.registryDirectory)) {
+			return;
+		}
+		for (Path registry : list(this.registryDirectory)) {
+			Matcher matcher = REGISTRY_FILE_NAME.matcher(registry.getFileName().toString());
+			if (!matcher.matches()) {
+				continue;
+			}
+			List<String> lines = readLines(registry);
+			if (lines.isEmpty() || isRunning(lines.get(0))) {
+				continue;
+			}
+			for (String line : lines.subList(1, lines.size())) {
+				find(line).ifPresent((process) -> destroy(process, matcher.group(1)));
+			}
+			Files.deleteIfExists(registry);
+		}
+	}
+
+	private void deleteTempPaths() throws IOException {
+		for (Path path : list(this.tempDirectory)) {
+			Matcher matcher = TEMP_PATH_NAME.matcher(path.getFileName().toString());
+			if (matcher.matches() && ProcessHandle.of(Long.parseLong(matcher.group(1))).isEmpty()) {
+				if (logger.isDebugEnabled()) {
+					logger.debug(LogMessage.format("Deleting %s of process %s that no longer exists", path,
+							matcher.group(1)));
+				}
+				FileSystemUtils.deleteRecursively(path);
+			}
+		}
+	}
+
+	private static void destroy(ProcessHandle process, String owner) {
+		logger.info(LogMessage.format("Destroying process %d that was left running by process %s that no longer exists",
+				process.pid(), owner));
+		process.descendants().forEach(ProcessHandle::destroyForcibly);
+		process.destroyForcibly();
+	}
+
+	/**
+	 * Rewrites the registry file of the current JVM, which is deleted once no process is
+	 * recorded. The first line is the current JVM, so that a later JVM can determine if
+	 * it still exists.
+	 */
+	private void writeRegistry() {
+		Path registry = this.registryDirectory.resolve(this.owner.pid() + ".pids");
+		try {
+			if (this.processes.isEmpty()) {
+				Files.deleteIfExists(registry);
+				return;
+			}
+			List<String> lines = new ArrayList<>();
+			lines.add(line(this.owner.pid(), startMillis(this.owner)));
+			this.processes.forEach((pid, startMillis) -> lines.add(line(pid, startMillis)));
+			Files.createDirectories(this.registryDirectory);
+			Path tmp = Files.createTempFile(this.registryDirectory, registry.getFileName().toString(), ".tmp");
+			Files.write(tmp, lines, StandardCharsets.UTF_8);
+			ContentAddressedClasspath.moveAtomically(tmp, registry);
+		}
+		catch (IOException ex) {
+			logger.debug(LogMessage.format("Failed to write %s", registry), ex);
+		}
+	}
+
+	/**
+	 * Finds the process of a line in a registry file. A process that started at a
+	 * different time than recorded is a different process that reused the process id,
+	 * and a process whose start time is unknown is never found, so that an unrelated
+	 * process is never destroyed.
+	 * @param line the line of the registry file
+	 * @return the process or empty if it no longer exists or the line cannot be read
+	 */
+	private static Optional<ProcessHandle> find(String line) {
+		String[] parts = line.trim().split(" ");
+		try {
+			long startMillis = Long.parseLong(parts[1]);
+			if (startMillis == UNKNOWN_START) {
+				return Optional.empty();
+			}
+			return ProcessHandle.of(Long.parseLong(parts[0]))
+					.filter((process) -> startMillis == startMillis(process));
+		}
+		catch (RuntimeException ex) {
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * Determines if the JVM of the first line of a registry file is still running. A JVM
+	 * whose start time is unknown is assumed to be running if its process id exists, so
+	 * that the processes of a running JVM are never destroyed.
+	 * @param line the first line of the registry file
+	 * @return true if the JVM is running, false if it is not or the line cannot be read
+	 */
+	private static boolean isRunning(String line) {
+		String[] parts = line.trim().split(" ");
+		try {
+			long startMillis = Long.parseLong(parts[1]);
+			return ProcessHandle.of(Long.parseLong(parts[0]))
+					.filter((process) -> startMillis == UNKNOWN_START || startMillis == startMillis(process))
+					.isPresent();
+		}
+		catch (RuntimeException ex) {
+			return false;
+		}
+	}
+
+	private static String line(long pid, long startMillis) {
+		return pid + " " + startMillis;
+	}
+
+	private static long startMillis(ProcessHandle process) {
+		return process.info().startInstant().map((start) -> start.toEpochMilli()).orElse(UNKNOWN_START);
+	}
+
+	private static ProcessHandle toHandle(Process process) {
+		try {
+			return process.toHandle();
+		}
+		catch (UnsupportedOperationException ex) {
+			return null;
+		}
+	}
+
+	private static List<String> readLines(Path path) {
+		try {
+			return Files.readAllLines(path, StandardCharsets.UTF_8);
+		}
+		catch (IOException ex) {
+			return List.of();
+		}
+	}
+
+	private static List<Path> list(Path directory) throws IOException {
+		try (Stream<Path> paths = Files.list(directory)) {
+			return paths.toList();
+		}
+	}
+
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2012-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.experimental.boot.server.exec;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Matches the output of a process line by line against patterns to determine when the
+ * process is ready. Every stream of output gets its own fixed size line buffer and its
+ * own {@link Matcher} instances that are reset for every line, so matching does not
+ * create a {@link String} for every line. Lines longer than the buffer are truncated and
+ * a trailing carriage return is ignored, so that lines that end with {@code \r\n} (e.g.
+ * on Windows) are matched like any other line.
+ * <p>
+ * Once any of the patterns matches, the port is completed with the first capture group
+ * of the pattern or {@code -1} if the pattern has no capture group (or it did not
+ * participate in the match), and the output is no longer matched.
+ *
+ * @author Rob Winch
+ */
+final class OutputMatcher {
+
+	private static final int MAX_LINE_LENGTH = 8 * 1024;
+
+	private final List<Pattern> patterns;
+
+	private final CompletableFuture<Integer> port = new CompletableFuture<>();
+
+	/**
+	 * Creates a new instance.
+	 * @param patterns the patterns that indicate the process is ready
+	 */
+	OutputMatcher(List<Pattern> patterns) {
+		this.patterns = patterns;
+	}
+
+	/**
+	 * Creates an {@link OutputStream} that writes to the provided {@link OutputStream}
+	 * and matches the output. Flushing or closing the returned {@link OutputStream}
+	 * matches the last line even if it does not end with a line feed, so it must only be
+	 * flushed once all of the output has been written (e.g. once the process exited).
+	 * Closing it only flushes the provided {@link OutputStream}.
+	 * @param out the {@link OutputStream} to write to
+	 * @return the {@link OutputStream} to use
+	 */
+	OutputStream tee(OutputStream out) {
+		return new LineMatcher(out);
+	}
+
+	/**
+	 * Gets the port that is completed when any of the patterns matches.
+	 * @return the port or {@code -1} if the pattern that matched has no capture group
+	 */
+	CompletableFuture<Integer> getPort() {
+		return this.port;
+	}
+
+	List<Pattern> getPatterns() {
+		return this.patterns;
+	}
+
+	/**
+	 * Stops matching the output, e.g. because the process exited.
+	 */
+	void stop() {
+		this.port.completeExceptionally(new IllegalStateException("Stopped matching " + this.patterns));
+	}
+
+	private void matched(Matcher matcher) {
+		String group = (matcher.groupCount() > 0) ? matcher.group(1) : null;
+		if (group == null) {
+			this.port.complete(-1);
+			return;
+		}
+		try {
+			this.port.complete(Integer.parseInt(group.trim()));
+		}
+		catch (NumberFormatException ex) {
+			this.port.completeExceptionally(new IllegalStateException(
+					"The first group of " + matcher.pattern() + " matched '" + group + "' which is not a port", ex));
+		}
+	}
+
+	private final class LineMatcher extends OutputStream {
+
+		private final OutputStream out;
+
+		private final ByteBuffer line = ByteBuffer.allocate(MAX_LINE_LENGTH);
+
+		private final CharBuffer chars = CharBuffer.allocate(MAX_LINE_LENGTH);
+
+		private final CharsetDecoder decoder = Charset.defaultCharset().newDecoder()
+				.onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+		private final Matcher[] matchers;
+
+		LineMatcher(OutputStream out) {
+			this.out = out;
+			this.matchers = OutputMatcher.this.patterns.stream().map((pattern) -> pattern.matcher(""))
+					.toArray(Matcher[]::new);
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			this.out.write(b);
+			if (!OutputMatcher.this.port.isDone()) {
+				append((byte) b);
+			}
+		}
+
+		@Override
+		public void write(byte[] bytes, int offset, int length) throws IOException {
+			this.out.write(bytes, offset, length);
+			for (int i = offset; i < offset + length && !OutputMatcher.this.port.isDone(); i++) {
+				append(bytes[i]);
+			}
+		}
+
+		private void append(byte b) {
+			if (b == '\n') {
+				matchLine();
+			}
+			else if (this.line.hasRemaining()) {
+				this.line.put(b);
+			}
+		}
+
+		private void matchLine() {
+			this.line.flip();
+			if (this.line.hasRemaining() && this.line.get(this.line.limit() - 1) == '\r') {
+				this.line.limit(this.line.limit() - 1);
+			}
+			this.chars.clear();
+			this.decoder.reset();
+			this.decoder.decode(this.line, this.chars, true);
+			this.decoder.flush(this.chars);
+			this.chars.flip();
+			for (Matcher matcher : this.matchers) {
+				if (matcher.reset(this.chars).find()) {
+					matched(matcher);
+					break;
+				}
+			}
+			this.line.clear();
+		}
+
+		/**
+		 * Matches the pending line, which does not end with a line feed, since all of the
+		 * output has been written.
+		 */
+		private void matchPendingLine() {
+			if (this.line.position() > 0 && !OutputMatcher.this.port.isDone()) {
+				matchLine();
+			}
+		}
+
+		@Override
+		public void flush() throws IOException {
+			matchPendingLine();
+			this.out.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			matchPendingLine();
+			this.out.flush();
+		}
+
+	}
+
+}
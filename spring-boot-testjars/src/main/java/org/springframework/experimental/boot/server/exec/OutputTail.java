@@ -0,0 +1,153 @@
+/*
+ * Copyright 2012-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.experimental.boot.server.exec;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Keeps the last bytes written by a process so that they can be reported when the
+ * process fails. The bytes are kept in a fixed size ring buffer that is backed by a
+ * direct {@link ByteBuffer}, so memory use does not grow with the amount of output, the
+ * output does not occupy the heap and writing does not allocate.
+ *
+ * @author Rob Winch
+ */
+final class OutputTail {
+
+	private final ByteBuffer buffer;
+
+	private final int capacity;
+
+	private int position;
+
+	private boolean full;
+
+	/**
+	 * Creates a new instance.
+	 * @param capacity the maximum number of bytes to keep
+	 */
+	OutputTail(int capacity) {
+		this.buffer = ByteBuffer.allocateDirect(capacity);
+		this.capacity = capacity;
+	}
+
+	synchronized void write(int b) {
+		this.buffer.put(this.position, (byte) b);
+		advance(1);
+	}
+
+	synchronized void write(byte[] bytes, int offset, int length) {
+		if (length >= this.capacity) {
+			this.buffer.put(0, bytes, offset + length - this.capacity, this.capacity);
+			this.position = 0;
+			this.full = true;
+			return;
+		}
+		int remaining = this.capacity - this.position;
+		int first = Math.min(length, remaining);
+		this.buffer.put(this.position, bytes, offset, first);
+		this.buffer.put(0, bytes, offset + first, length - first);
+		advance(length);
+	}
+
+	private void advance(int length) {
+		this.position += length;
+		if (this.position >= this.capacity) {
+			this.position -= this.capacity;
+			this.full = true;
+		}
+	}
+
+	/**
+	 * Replaces the bytes that are kept with the last bytes of the provided file (e.g. a
+	 * file that the output of the process was redirected to).
+	 * @param file the file to read
+	 * @throws IOException if the file cannot be read
+	 */
+	synchronized void readFrom(File file) throws IOException {
+		try (FileChannel input = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			long size = input.size();
+			int length = (int) Math.min(size, this.capacity);
+			ByteBuffer target = this.buffer.duplicate().position(0).limit(length);
+			long offset = size - length;
+			while (target.hasRemaining()) {
+				if (input.read(target, offset + target.position()) == -1) {
+					break;
+				}
+			}
+			this.position = length % this.capacity;
+			this.full = length == this.capacity;
+		}
+	}
+
+	/**
+	 * Creates an {@link OutputStream} that writes to the provided {@link OutputStream}
+	 * and to this {@link OutputTail}. Closing the returned {@link OutputStream} only
+	 * flushes the provided {@link OutputStream}.
+	 * @param out the {@link OutputStream} to write to
+	 * @return the {@link OutputStream} to use
+	 */
+	OutputStream tee(OutputStream out) {
+		return new OutputStream() {
+
+			@Override
+			public void write(int b) throws IOException {
+				out.write(b);
+				OutputTail.this.write(b);
+			}
+
+			@Override
+			public void write(byte[] bytes, int offset, int length) throws IOException {
+				out.write(bytes, offset, length);
+				OutputTail.this.write(bytes, offset, length);
+			}
+
+			@Override
+			public void flush() throws IOException {
+				out.flush();
+			}
+
+			@Override
+			public void close() throws IOException {
+				out.flush();
+			}
+
+		};
+	}
+
+	@Override
+	public synchronized String toString() {
+		Charset charset = Charset.defaultCharset();
+		if (!this.full) {
+			byte[] bytes = new byte[this.position];
+			this.buffer.get(0, bytes);
+			return new String(bytes, charset);
+		}
+		byte[] ordered = new byte[this.capacity];
+		int remaining = this.capacity - this.position;
+		this.buffer.get(this.position, ordered, 0, remaining);
+		this.buffer.get(0, ordered, remaining, this.position);
+		return new String(ordered, charset);
+	}
+
+}
@@ -16,8 +16,12 @@
 
 package org.springframework.experimental.boot.server.exec;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.exec.ProcessDestroyer;
 import org.apache.commons.logging.Log;
@@ -27,22 +31,67 @@ import org.springframework.core.log.LogMessage;
 
 /**
  * Allows to track every {@link Process} and then destroy them with {@link #destroyAll()}.
+ * <p>
+ * A process is destroyed along with all of its descendants (e.g. processes that are
+ * started by the application), so that none of them outlive the tests. Every process of
+ * the tree is asked to terminate (e.g. {@code SIGTERM}) at the same time, so that
+ * shutdown hooks run, and the processes that have not exited after the grace period are
+ * destroyed forcibly. No thread is blocked while waiting, so the time it takes to
+ * destroy any number of processes is bounded by the grace period.
+ * <p>
+ * The processes are also recorded by the {@link OrphanReaper}, so that they are destroyed
+ * by a later JVM if the current JVM exits without destroying them.
  *
  * @author Rob Winch
  */
 final class ProcessDestroyerBean implements ProcessDestroyer {
 
+	static final Duration DEFAULT_GRACE_PERIOD = Duration.ofSeconds(10);
+
+	private static final Duration FORCIBLE_EXIT_TIMEOUT = Duration.ofSeconds(5);
+
 	private static final Log logger = LogFactory.getLog(ProcessDestroyerBean.class);
 
-	private final List<Process> processes = new ArrayList<>();
+	private final List<Process> processes = new CopyOnWriteArrayList<>();
+
+	private final OrphanReaper orphanReaper;
+
+	private volatile Duration gracePeriod = DEFAULT_GRACE_PERIOD;
+
+	ProcessDestroyerBean() {
+		this(OrphanReaper.INSTANCE);
+	}
+
+	/**
+	 * Creates a new instance.
+	 * @param orphanReaper the {@link OrphanReaper} that records the processes
+	 */
+	ProcessDestroyerBean(OrphanReaper orphanReaper) {
+		this.orphanReaper = orphanReaper;
+	}
 
 	@Override
 	public boolean add(Process process) {
+		return add(process, true);
+	}
+
+	/**
+	 * Tracks a process.
+	 * @param process the process to track
+	 * @param reapWhenOrphaned true if the process should be destroyed by a later JVM if
+	 * the current JVM exits without destroying it (see {@link OrphanReaper})
+	 * @return true if the process is tracked
+	 */
+	boolean add(Process process, boolean reapWhenOrphaned) {
+		if (reapWhenOrphaned) {
+			this.orphanReaper.register(process);
+		}
 		return this.processes.add(process);
 	}
 
 	@Override
 	public boolean remove(Process process) {
+		this.orphanReaper.unregister(process);
 		return this.processes.remove(process);
 	}
 
@@ -51,15 +100,101 @@ final class ProcessDestroyerBean implements ProcessDestroyer {
 		return this.processes.size();
 	}
 
-	void destroyAll() {
-		for (Process process : this.processes) {
-			try {
-				process.destroy();
+	/**
+	 * Gets the processes that are currently being tracked.
+	 * @return the processes that are currently being tracked
+	 */
+	List<Process> getProcesses() {
+		return new ArrayList<>(this.processes);
+	}
+
+	/**
+	 * Sets how long to wait for the processes to exit before destroying them forcibly.
+	 * @param gracePeriod the amount of time to wait
+	 */
+	void setGracePeriod(Duration gracePeriod) {
+		this.gracePeriod = gracePeriod;
+	}
+
+	/**
+	 * Destroys every process and its descendants.
+	 * @return a {@link CompletableFuture} that completes once every process has exited
+	 * or, if a process could not be destroyed forcibly, once the time to wait for it has
+	 * elapsed
+	 */
+	CompletableFuture<Void> destroyAll() {
+		CompletableFuture<?>[] destroyed = this.processes.stream().map(this::destroy).toArray(CompletableFuture[]::new);
+		return CompletableFuture.allOf(destroyed);
+	}
+
+	private CompletableFuture<Void> destroy(Process process) {
+		List<ProcessHandle> descendants = getDescendants(process);
+		destroy(process, process::destroy);
+		descendants.forEach((descendant) -> destroy(descendant, descendant::destroy));
+		List<CompletableFuture<?>> exits = new ArrayList<>();
+		exits.add(awaitExit(process, process.onExit(), () -> {
+			getDescendants(process).forEach((descendant) -> destroy(descendant, descendant::destroyForcibly));
+			destroy(process, process::destroyForcibly);
+		}));
+		for (ProcessHandle descendant : descendants) {
+			exits.add(awaitExit(descendant, descendant.onExit(),
+					() -> destroy(descendant, descendant::destroyForcibly)));
+		}
+		return CompletableFuture.allOf(exits.toArray(CompletableFuture[]::new));
+	}
+
+	/**
+	 * Gets the descendants of a process before it is destroyed, since the descendants
+	 * can no longer be found once the process has exited. A process that runs in the
+	 * current JVM (e.g. an {@link InProcessApplication}) has no descendants of its own.
+	 * @param process the process to get the descendants of
+	 * @return the descendants of the process
+	 */
+	private static List<ProcessHandle> getDescendants(Process process) {
+		try {
+			ProcessHandle handle = process.toHandle();
+			if (handle.pid() == ProcessHandle.current().pid()) {
+				return List.of();
 			}
-			catch (Throwable throwable) {
-				if (logger.isDebugEnabled()) {
-					logger.debug(LogMessage.format("Error destroying process %s", process), throwable);
-				}
+			return handle.descendants().toList();
+		}
+		catch (UnsupportedOperationException ex) {
+			return List.of();
+		}
+	}
+
+	/**
+	 * Waits for a process to exit and destroys it forcibly if it has not exited within the
+	 * grace period.
+	 * @param process the process (or {@link ProcessHandle}) to describe in the logs
+	 * @param exit completes when the process exits
+	 * @param destroyForcibly destroys the process forcibly
+	 * @return a {@link CompletableFuture} that completes once the process has exited or
+	 * the time to wait after destroying it forcibly has elapsed
+	 */
+	private CompletableFuture<Void> awaitExit(Object process, CompletableFuture<?> exit, Runnable destroyForcibly) {
+		Duration gracePeriod = this.gracePeriod;
+		return exit.thenApply((exited) -> true)
+				.completeOnTimeout(false, gracePeriod.toMillis(), TimeUnit.MILLISECONDS)
+				.thenCompose((exited) -> {
+					if (exited) {
+						return CompletableFuture.completedFuture(null);
+					}
+					logger.info(LogMessage.format("Destroying %s forcibly since it did not exit within %s", process,
+							gracePeriod));
+					destroyForcibly.run();
+					return exit.thenApply((forciblyExited) -> (Void) null)
+							.completeOnTimeout(null, FORCIBLE_EXIT_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+				});
+	}
+
+	private static void destroy(Object process, Runnable destroy) {
+		try {
+			destroy.run();
+		}
+		catch (Throwable throwable) {
+			if (logger.isDebugEnabled()) {
+				logger.debug(LogMessage.format("Error destroying process %s", process), throwable);
 			}
 		}
 	}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2012-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.experimental.boot.server.exec;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Launches the {@link Process} of a {@link CommonsExecWebServer} without using Apache
+ * Commons Exec (e.g. using a {@link ResidentLauncherPool}).
+ *
+ * @author Rob Winch
+ */
+interface ProcessLauncher {
+
+	/**
+	 * Launches the process.
+	 * @return the {@link Process} that was launched
+	 * @throws IOException if the process cannot be launched
+	 */
+	Process launch() throws IOException;
+
+	/**
+	 * Gets the file that the output of the process is redirected to.
+	 * @return the file that the output is redirected to or {@code null} if the output is
+	 * read from the {@link Process}
+	 */
+	default File getOutputFile() {
+		return null;
+	}
+
+	/**
+	 * Determines if the process is meant to keep running after the current JVM exits
+	 * (e.g. when it is kept alive), in which case it is not destroyed by the
+	 * {@link OrphanReaper} of a later JVM.
+	 * @return true if the process outlives the current JVM
+	 */
+	default boolean outlivesOwner() {
+		return false;
+	}
+
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2012-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.experimental.boot.server.exec;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.log.LogMessage;
+
+/**
+ * Probes an HTTP path of an application (e.g. {@code /actuator/health/readiness}) once
+ * its port is known, until it responds with a {@code 2xx} status. A port that is bound
+ * only means the application accepts connections, while the probe also waits for it to
+ * be able to serve requests (e.g. for {@code ApplicationRunner}s to finish).
+ * <p>
+ * The probe does not block a thread. Every failed request is retried after an interval
+ * that doubles up to {@link #MAX_INTERVAL}. A single {@link HttpClient} is shared by all
+ * of the servers.
+ *
+ * @author Rob Winch
+ */
+final class ReadinessProbe {
+
+	static final String DEFAULT_PATH = "/actuator/health/readiness";
+
+	private static final Duration INITIAL_INTERVAL = Duration.ofMillis(10);
+
+	private static final Duration MAX_INTERVAL = Duration.ofSeconds(1);
+
+	private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(5);
+
+	private static final Log logger = LogFactory.getLog(ReadinessProbe.class);
+
+	private final String path;
+
+	/**
+	 * Creates a new instance.
+	 * @param path the path to probe
+	 */
+	ReadinessProbe(String path) {
+		this.path = path;
+	}
+
+	/**
+	 * Probes the application until it responds with a {@code 2xx} status. Completing
+	 * the returned {@link CompletableFuture} (e.g. by cancelling it) stops probing.
+	 * @param port the port the application is listening on
+	 * @param timeout the maximum amount of time to probe or {@code null} to probe until
+	 * the returned {@link CompletableFuture} is completed
+	 * @return a {@link CompletableFuture} that completes with the port once the
+	 * application responds with a {@code 2xx} status or exceptionally with a
+	 * {@link TimeoutException} if it did not within the timeout
+	 */
+	CompletableFuture<Integer> probe(int port, Duration timeout) {
+		if (port <= 0) {
+			return CompletableFuture.failedFuture(new IllegalStateException(
+					"The port is unknown, so " + this.path + " cannot be probed for readiness"));
+		}
+		CompletableFuture<Integer> ready = new CompletableFuture<>();
+		long deadline = (timeout != null) ? System.nanoTime() + timeout.toNanos() : 0;
+		HttpRequest request = HttpRequest.newBuilder(getUri(port)).timeout(REQUEST_TIMEOUT).GET().build();
+		send(request, port, ready, INITIAL_INTERVAL, deadline, timeout);
+		return ready;
+	}
+
+	/**
+	 * Gets the URI that is probed.
+	 * @param port the port the application is listening on
+	 * @return the URI that is probed
+	 */
+	URI getUri(int port) {
+		return URI.create("http://localhost:" + port + this.path);
+	}
+
+	private void send(HttpRequest request, int port, CompletableFuture<Integer> ready, Duration interval,
+			long deadline, Duration timeout) {
+		if (ready.isDone()) {
+			return;
+		}
+		Client.httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+				.whenComplete((response, failure) -> {
+					if (response != null && response.statusCode() >= 200 && response.statusCode() < 300) {
+						ready.complete(port);
+						return;
+					}
+					String result = (response != null) ? "status " + response.statusCode()
+							: String.valueOf((failure instanceof CompletionException) ? failure.getCause() : failure);
+					if (timeout != null && System.nanoTime() - deadline >= 0) {
+						ready.completeExceptionally(new TimeoutException(request.uri()
+								+ " did not respond with a 2xx status within " + timeout + " (" + result + ")"));
+						return;
+					}
+					if (logger.isTraceEnabled()) {
+						logger.trace(LogMessage.format("%s is not ready (%s), retrying in %s", request.uri(), result,
+								interval));
+					}
+					Duration doubled = interval.multipliedBy(2);
+					Duration nextInterval = (doubled.compareTo(MAX_INTERVAL) > 0) ? MAX_INTERVAL : doubled;
+					CompletableFuture.delayedExecutor(interval.toMillis(), TimeUnit.MILLISECONDS)
+							.execute(() -> send(request, port, ready, nextInterval, deadline, timeout));
+				});
+	}
+
+	/**
+	 * Holds the {@link HttpClient}, so that it is only created once a server is probed.
+	 */
+	private static final class Client {
+
+		private static final HttpClient httpClient = HttpClient.newBuilder()
+				.connectTimeout(REQUEST_TIMEOUT)
+				.executor(ExecThreads.executor("testjars-readiness-"))
+				.build();
+
+	}
+
+}
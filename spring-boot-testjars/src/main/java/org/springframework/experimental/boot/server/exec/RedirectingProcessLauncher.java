@@ -0,0 +1,64 @@
+/*
+ * Copyright 2012-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.experimental.boot.server.exec;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ProcessBuilder.Redirect;
+
+import org.apache.commons.exec.CommandLine;
+
+/**
+ * A {@link ProcessLauncher} that uses a {@link ProcessBuilder} to redirect the standard
+ * output and standard error of the process to a file. The output is written to the file
+ * by the operating system, so no threads are needed to read it and it is never copied
+ * through the heap of the current JVM.
+ *
+ * @author Rob Winch
+ */
+final class RedirectingProcessLauncher implements ProcessLauncher {
+
+	private final CommandLine commandLine;
+
+	private final File outputFile;
+
+	/**
+	 * Creates a new instance.
+	 * @param commandLine the command to run
+	 * @param outputFile the file to append the output of the process to
+	 */
+	RedirectingProcessLauncher(CommandLine commandLine, File outputFile) {
+		this.commandLine = commandLine;
+		this.outputFile = outputFile;
+	}
+
+	@Override
+	public Process launch() throws IOException {
+		ProcessBuilder processBuilder = new ProcessBuilder(this.commandLine.toStrings());
+		processBuilder.redirectErrorStream(true);
+		processBuilder.redirectOutput(Redirect.appendTo(this.outputFile));
+		Process process = processBuilder.start();
+		process.getOutputStream().close();
+		return process;
+	}
+
+	@Override
+	public File getOutputFile() {
+		return this.outputFile;
+	}
+
+}
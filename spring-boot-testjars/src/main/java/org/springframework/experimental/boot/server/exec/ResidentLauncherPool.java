@@ -0,0 +1,185 @@
+/*
+ * Copyright 2012-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.experimental.boot.server.exec;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.log.LogMessage;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.experimental.boot.server.exec.detector.ResidentLauncherMain;
+
+/**
+ * A pool of idle JVMs that run {@link ResidentLauncherMain} and are waiting for an
+ * application to run. Taking a launcher from the pool means that the application does
+ * not need to wait for the JVM to start. The pool is refilled in the background every
+ * time a launcher is taken.
+ * <p>
+ * There is a pool for every combination of java executable and JVM options. The idle
+ * launchers exit when the JVM that started them exits because their standard input is
+ * closed.
+ *
+ * @author Rob Winch
+ */
+final class ResidentLauncherPool {
+
+	private static final Log logger = LogFactory.getLog(ResidentLauncherPool.class);
+
+	private static final Map<List<String>, ResidentLauncherPool> pools = new ConcurrentHashMap<>();
+
+	private static final SimpleAsyncTaskExecutor refillExecutor = ExecThreads.executor("testjars-launcher-pool-");
+
+	private static final ClasspathEntry launcherClasspathEntry = new ScanningClasspathEntry(
+			ResidentLauncherMain.class);
+
+	private static String launcherClasspath;
+
+	static {
+		Runtime.getRuntime().addShutdownHook(new Thread(ResidentLauncherPool::shutdown, "testjars-launcher-pool"));
+	}
+
+	private final List<String> command;
+
+	private final int size;
+
+	private final BlockingQueue<Process> idle = new LinkedBlockingQueue<>();
+
+	private int spawning;
+
+	private ResidentLauncherPool(List<String> command, int size) {
+		this.command = command;
+		this.size = size;
+	}
+
+	/**
+	 * Gets the pool for the java executable and JVM options, creating it and starting to
+	 * fill it in the background if it does not exist yet.
+	 * @param executable the java executable
+	 * @param jvmOptions the JVM options of the launchers
+	 * @param size the number of idle launchers to keep
+	 * @return the {@link ResidentLauncherPool}
+	 */
+	static ResidentLauncherPool get(String executable, List<String> jvmOptions, int size) {
+		List<String> key = new ArrayList<>();
+		key.add(executable);
+		key.addAll(jvmOptions);
+		return pools.computeIfAbsent(key, (command) -> {
+			ResidentLauncherPool pool = new ResidentLauncherPool(command, size);
+			pool.refill();
+			return pool;
+		});
+	}
+
+	/**
+	 * Runs an application using an idle launcher, or a new launcher if there are no idle
+	 * launchers, and refills the pool in the background.
+	 * @param classpath the classpath of the application
+	 * @param mainClass the main class of the application
+	 * @param systemProperties the system properties of the application
+	 * @return the {@link Process} that is running the application
+	 * @throws IOException if the launcher cannot be started or the request cannot be sent
+	 */
+	Process launch(List<String> classpath, String mainClass, Map<String, String> systemProperties)
+			throws IOException {
+		Process launcher = take();
+		Properties request = new Properties();
+		request.setProperty(ResidentLauncherMain.CLASSPATH, String.join(File.pathSeparator, classpath));
+		request.setProperty(ResidentLauncherMain.MAIN_CLASS, mainClass);
+		systemProperties.forEach(
+				(name, value) -> request.setProperty(ResidentLauncherMain.SYSTEM_PROPERTY_PREFIX + name, value));
+		try (Writer writer = new OutputStreamWriter(launcher.getOutputStream(), StandardCharsets.UTF_8)) {
+			request.store(writer, null);
+		}
+		return launcher;
+	}
+
+	private Process take() throws IOException {
+		try {
+			Process launcher = this.idle.poll();
+			while (launcher != null && !launcher.isAlive()) {
+				launcher = this.idle.poll();
+			}
+			return (launcher != null) ? launcher : spawn();
+		}
+		finally {
+			refill();
+		}
+	}
+
+	private void refill() {
+		synchronized (this) {
+			if (this.idle.size() + this.spawning >= this.size) {
+				return;
+			}
+			this.spawning++;
+		}
+		refillExecutor.execute(() -> {
+			try {
+				this.idle.add(spawn());
+			}
+			catch (IOException ex) {
+				logger.warn(LogMessage.format("Failed to start a launcher using %s", this.command), ex);
+				return;
+			}
+			finally {
+				synchronized (this) {
+					this.spawning--;
+				}
+			}
+			refill();
+		});
+	}
+
+	private Process spawn() throws IOException {
+		List<String> command = new ArrayList<>(this.command);
+		command.add("-classpath");
+		command.add(getLauncherClasspath());
+		command.add(ResidentLauncherMain.class.getName());
+		if (logger.isDebugEnabled()) {
+			logger.debug(LogMessage.format("Starting launcher %s", command));
+		}
+		return new ProcessBuilder(command).start();
+	}
+
+	private static synchronized String getLauncherClasspath() {
+		if (launcherClasspath == null) {
+			launcherClasspath = String.join(File.pathSeparator, launcherClasspathEntry.resolve());
+		}
+		return launcherClasspath;
+	}
+
+	private static void shutdown() {
+		for (ResidentLauncherPool pool : pools.values()) {
+			pool.idle.forEach(Process::destroy);
+		}
+		launcherClasspathEntry.cleanup();
+	}
+
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2012-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.experimental.boot.server.exec;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+import org.apache.commons.exec.CommandLine;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.log.LogMessage;
+import org.springframework.experimental.boot.server.exec.detector.ParentWatchdogMain;
+
+/**
+ * A JVM wide registry of {@link CommonsExecWebServer} instances that are shared by every
+ * {@link CommonsExecWebServerFactoryBean} that builds an identical command (e.g. the
+ * same bean in multiple cached test {@code ApplicationContext}s). A shared server is
+ * reference counted and is only stopped when the last reference is released.
+ * <p>
+ * Only the first {@link CommonsExecWebServerFactoryBean} with a fingerprint builds and
+ * starts the server, and it does so without holding the lock of the registry. Any other
+ * {@link CommonsExecWebServerFactoryBean} with the same fingerprint waits for that server,
+ * while servers with other fingerprints are started concurrently.
+ *
+ * @author Rob Winch
+ */
+final class SharedWebServerRegistry {
+
+	private static final Log logger = LogFactory.getLog(SharedWebServerRegistry.class);
+
+	private static final Map<String, CompletableFuture<CommonsExecWebServer>> servers = new HashMap<>();
+
+	private static final Map<CommonsExecWebServer, Integer> references = new IdentityHashMap<>();
+
+	private static final String PARENT_PID_ARGUMENT = "-D" + ParentWatchdogMain.PARENT_PID + "=";
+
+	/**
+	 * Creates a fingerprint of the command that identifies identical servers. The port
+	 * file is excluded since it is unique to every
+	 * {@link CommonsExecWebServerFactoryBean} and the process id of the current JVM (see
+	 * {@link ParentWatchdogMain#PARENT_PID}) is excluded since it is unique to every test
+	 * run, so that the fingerprint is stable across test runs. Directories on the
+	 * classpath contribute their content rather than their random name, and the system
+	 * properties are sorted.
+	 * @param commandLine the command that runs the server
+	 * @return the fingerprint of the command
+	 */
+	static String fingerprint(CommandLine commandLine) {
+		List<String> values = new ArrayList<>();
+		List<String> systemProperties = new ArrayList<>();
+		List<String> classpath = new ArrayList<>();
+		values.add(commandLine.getExecutable());
+		String[] arguments = commandLine.getArguments();
+		for (int i = 0; i < arguments.length; i++) {
+			String argument = arguments[i];
+			if (argument.startsWith("-DPORTFILE=") || argument.startsWith(PARENT_PID_ARGUMENT)) {
+				continue;
+			}
+			if (argument.startsWith("-D")) {
+				systemProperties.add(argument);
+			}
+			else if (argument.equals("-classpath") && i + 1 < arguments.length) {
+				classpath.addAll(Arrays.asList(arguments[++i].split(File.pathSeparator)));
+			}
+			else {
+				values.add(argument);
+			}
+		}
+		systemProperties.sort(null);
+		values.addAll(systemProperties);
+		return ContentAddressedClasspath.fingerprint(classpath, values.toArray(String[]::new));
+	}
+
+	/**
+	 * Gets the running server with the provided fingerprint, or creates, starts and
+	 * registers a server if there is none. If another server with the same fingerprint is
+	 * being started, it is awaited rather than creating a server. Every call that returns
+	 * a server must be paired with a call to {@link #release(CommonsExecWebServer)}.
+	 * @param fingerprint the fingerprint of the command created with
+	 * {@link #fingerprint(CommandLine)}
+	 * @param candidate creates the server, which is only invoked if there is no running
+	 * server
+	 * @return the shared server
+	 */
+	static CommonsExecWebServer acquire(String fingerprint, Supplier<CommonsExecWebServer> candidate) {
+		while (true) {
+			CompletableFuture<CommonsExecWebServer> registered;
+			boolean create = false;
+			synchronized (SharedWebServerRegistry.class) {
+				registered = servers.get(fingerprint);
+				if (registered == null || hasExited(registered)) {
+					registered = new CompletableFuture<>();
+					servers.put(fingerprint, registered);
+					create = true;
+				}
+			}
+			if (create) {
+				return start(fingerprint, registered, candidate);
+			}
+			CommonsExecWebServer server = await(registered);
+			synchronized (SharedWebServerRegistry.class) {
+				if (servers.get(fingerprint) == registered && !server.hasExited()) {
+					references.merge(server, 1, Integer::sum);
+					if (logger.isDebugEnabled()) {
+						logger.debug(LogMessage.format("Reusing server %s with %d references", fingerprint,
+								references.get(server)));
+					}
+					return server;
+				}
+			}
+		}
+	}
+
+	private static CommonsExecWebServer start(String fingerprint, CompletableFuture<CommonsExecWebServer> starting,
+			Supplier<CommonsExecWebServer> candidate) {
+		CommonsExecWebServer server;
+		try {
+			server = candidate.get();
+			server.start();
+		}
+		catch (RuntimeException ex) {
+			synchronized (SharedWebServerRegistry.class) {
+				servers.remove(fingerprint, starting);
+			}
+			starting.completeExceptionally(ex);
+			throw ex;
+		}
+		synchronized (SharedWebServerRegistry.class) {
+			references.put(server, 1);
+		}
+		starting.complete(server);
+		return server;
+	}
+
+	private static CommonsExecWebServer await(CompletableFuture<CommonsExecWebServer> server) {
+		try {
+			return server.join();
+		}
+		catch (CompletionException ex) {
+			if (ex.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			throw ex;
+		}
+	}
+
+	private static boolean hasExited(CompletableFuture<CommonsExecWebServer> server) {
+		return server.isDone() && (server.isCompletedExceptionally() || server.join().hasExited());
+	}
+
+	/**
+	 * Releases a reference to a server that was returned by
+	 * {@link #acquire(String, Supplier)}. The server is stopped, without holding the lock
+	 * of the registry, when the last reference is released.
+	 * @param server the server to release
+	 */
+	static void release(CommonsExecWebServer server) {
+		synchronized (SharedWebServerRegistry.class) {
+			Integer count = references.computeIfPresent(server, (key, value) -> (value > 1) ? value - 1 : null);
+			if (count != null) {
+				return;
+			}
+			servers.values().removeIf((registered) -> registered.isDone() && !registered.isCompletedExceptionally()
+					&& registered.join() == server);
+		}
+		server.destroy();
+	}
+
+	private SharedWebServerRegistry() {
+	}
+
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2012-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.experimental.boot.server.exec;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A cache that is created by a training run of the application and is used to improve
+ * the startup time of later launches (e.g. a CDS archive or an AOT cache).
+ *
+ * @author Rob Winch
+ */
+interface StartupCache {
+
+	/**
+	 * Gets the classpath to launch the application with. The classpath may differ from
+	 * the provided classpath when the cache requires it to be stable across runs.
+	 * @param classpath the resolved classpath entries
+	 * @return the classpath to launch the application with
+	 */
+	List<String> classpath(List<String> classpath);
+
+	/**
+	 * Gets the JVM arguments that use the cache for the classpath, creating the cache with
+	 * a training run if it does not exist yet. If the cache cannot be created, then no
+	 * arguments are returned and the application starts normally.
+	 * @param classpath the classpath returned by {@link #classpath(List)}
+	 * @param applicationArguments creates the system properties, classpath and main
+	 * class arguments using the provided system property overrides
+	 * @return the JVM arguments to use
+	 */
+	List<String> jvmArguments(List<String> classpath, Function<Map<String, String>, List<String>> applicationArguments);
+
+}
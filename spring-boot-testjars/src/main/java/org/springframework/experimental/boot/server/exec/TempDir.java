@@ -16,18 +16,25 @@
 
 package org.springframework.experimental.boot.server.exec;
 
+import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 
 /**
  * Utility to create a temp directory for testjars that includes the process id in the
- * name to make it easier to figure out what temp paths are on the classpath.
+ * name to make it easier to figure out what temp paths are on the classpath. The process
+ * id also allows {@link OrphanReaper} to delete the temp paths of a JVM that exited
+ * without cleaning up.
  *
  * @author Rob Winch
  */
 final class TempDir {
 
+	static final String CLASSPATH_PREFIX = "testjars-classpath-";
+
+	static final String PORT_FILE_PREFIX = "testjars-port-";
+
 	/**
 	 * Creates a temp directory with the process id in the name.
 	 * @return a temp directory with the process id in the name.
@@ -35,7 +42,22 @@ final class TempDir {
 	static Path tempDir() {
 		long processId = ProcessHandle.current().pid();
 		try {
-			return Files.createTempDirectory("testjars-classpath-" + processId + "-");
+			return Files.createTempDirectory(CLASSPATH_PREFIX + processId + "-");
+		}
+		catch (IOException ex) {
+			throw new RuntimeException(ex);
+		}
+	}
+
+	/**
+	 * Creates a temp file for the port of an application with the process id in the name.
+	 * @return a temp file with the process id in the name
+	 */
+	static File portFile() {
+		long processId = ProcessHandle.current().pid();
+		try {
+			// FIXME: Review if we have a temp file CVE here
+			return File.createTempFile(PORT_FILE_PREFIX + processId + "-", ".port");
 		}
 		catch (IOException ex) {
 			throw new RuntimeException(ex);
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2012-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.experimental.boot.server.exec;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Captures a thread dump of another JVM using {@code jcmd <pid> Thread.print}.
+ *
+ * @author Rob Winch
+ */
+final class ThreadDump {
+
+	private static final long TIMEOUT_SECONDS = 30;
+
+	/**
+	 * Captures a thread dump of the JVM with the provided process id. The {@code jcmd}
+	 * executable located next to the provided java executable is used if it exists,
+	 * otherwise {@code jcmd} is resolved from the {@code PATH}. The output of
+	 * {@code jcmd} is written to a temporary file rather than read from a pipe, so that a
+	 * {@code jcmd} that hangs is destroyed once the timeout elapses.
+	 * @param javaExecutable the java executable that was used to start the process
+	 * @param pid the process id of the JVM
+	 * @return the thread dump or a description of why it could not be captured
+	 */
+	static String capture(String javaExecutable, long pid) {
+		ProcessBuilder processBuilder = new ProcessBuilder(jcmd(javaExecutable), String.valueOf(pid), "Thread.print");
+		processBuilder.redirectErrorStream(true);
+		Path output = null;
+		Process jcmd = null;
+		try {
+			output = Files.createTempFile("testjars-thread-dump-", ".txt");
+			processBuilder.redirectOutput(output.toFile());
+			jcmd = processBuilder.start();
+			jcmd.getOutputStream().close();
+			if (!jcmd.waitFor(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+				return "Unable to capture a thread dump of process " + pid + " since " + processBuilder.command()
+						+ " did not complete within " + TIMEOUT_SECONDS + " seconds" + System.lineSeparator()
+						+ Files.readString(output, Charset.defaultCharset());
+			}
+			return Files.readString(output, Charset.defaultCharset());
+		}
+		catch (IOException ex) {
+			return "Unable to capture a thread dump of process " + pid + " using " + processBuilder.command() + ": "
+					+ ex.getMessage();
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			return "Interrupted while capturing a thread dump of process " + pid;
+		}
+		finally {
+			if (jcmd != null && jcmd.isAlive()) {
+				jcmd.destroyForcibly();
+			}
+			delete(output);
+		}
+	}
+
+	private static void delete(Path output) {
+		if (output == null) {
+			return;
+		}
+		try {
+			Files.deleteIfExists(output);
+		}
+		catch (IOException ex) {
+			output.toFile().deleteOnExit();
+		}
+	}
+
+	private static String jcmd(String javaExecutable) {
+		File java = new File(javaExecutable);
+		String jcmdName = java.getName().endsWith(".exe") ? "jcmd.exe" : "jcmd";
+		File jcmd = new File(java.getParentFile(), jcmdName);
+		return jcmd.canExecute() ? jcmd.getAbsolutePath() : jcmdName;
+	}
+
+	private ThreadDump() {
+	}
+
+}
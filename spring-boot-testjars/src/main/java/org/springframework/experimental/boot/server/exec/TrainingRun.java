@@ -0,0 +1,63 @@
+/*
+ * Copyright 2012-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.experimental.boot.server.exec;
+
+import java.io.IOException;
+import java.lang.ProcessBuilder.Redirect;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a JVM that is used to train a {@link StartupCache}.
+ *
+ * @author Rob Winch
+ */
+final class TrainingRun {
+
+	/**
+	 * Runs the command, appending its output to the provided log. If the process does not
+	 * exit within the timeout, it is destroyed gracefully so that the JVM still writes
+	 * what it recorded when it exits and then forcibly if it still has not exited. The
+	 * process is also destroyed forcibly if waiting for it is interrupted.
+	 * @param command the command to run
+	 * @param log the file to append the output to
+	 * @param timeout the maximum amount of time to wait for the process to exit
+	 * @throws IOException if the process cannot be started
+	 * @throws InterruptedException if interrupted while waiting for the process
+	 */
+	static void run(List<String> command, Path log, Duration timeout) throws IOException, InterruptedException {
+		Process process = new ProcessBuilder(command).redirectErrorStream(true)
+				.redirectOutput(Redirect.appendTo(log.toFile())).start();
+		try {
+			if (!process.waitFor(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+				process.destroy();
+				process.waitFor(timeout.toMillis(), TimeUnit.MILLISECONDS);
+			}
+		}
+		finally {
+			if (process.isAlive()) {
+				process.destroyForcibly();
+			}
+		}
+	}
+
+	private TrainingRun() {
+	}
+
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2012-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.experimental.boot.server.exec;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.log.LogMessage;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+/**
+ * Launches a group of {@link CommonsExecWebServerFactoryBean} instances concurrently.
+ * The classpath of every server is materialized and its process started in parallel,
+ * then the readiness of all the servers is awaited together. This keeps the startup time
+ * of an {@code ApplicationContext} close to the startup time of the slowest server
+ * rather than the sum of all of them.
+ *
+ * @author Rob Winch
+ */
+final class WebServerLaunchCoordinator {
+
+	private static final Log logger = LogFactory.getLog(WebServerLaunchCoordinator.class);
+
+	private final SimpleAsyncTaskExecutor executor = ExecThreads.executor("testjars-launch-");
+
+	private final List<Launch> launches;
+
+	private CompletableFuture<Void> launched;
+
+	private CompletableFuture<Void> ready;
+
+	WebServerLaunchCoordinator(Collection<CommonsExecWebServerFactoryBean> factoryBeans) {
+		this.launches = factoryBeans.stream().map(Launch::new).toList();
+	}
+
+	/**
+	 * Builds and starts every server that has not already been started. Blocks until all
+	 * of the processes have been started, but does not wait for the servers to be ready.
+	 */
+	void launch() {
+		synchronized (this) {
+			if (this.launched == null) {
+				this.launched = runAll(this.launches, Launch::launch);
+			}
+		}
+		join(this.launched);
+	}
+
+	/**
+	 * Blocks until every server is ready, except for the servers whose readiness is
+	 * deferred until they are used. The first invocation logs how long each server took
+	 * to start.
+	 */
+	void awaitReady() {
+		launch();
+		boolean logTimings = false;
+		synchronized (this) {
+			if (this.ready == null) {
+				this.ready = runAll(getAwaitedLaunches(), Launch::awaitReady);
+				logTimings = true;
+			}
+		}
+		join(this.ready);
+		if (logTimings) {
+			logTimings();
+		}
+	}
+
+	private List<Launch> getAwaitedLaunches() {
+		return this.launches.stream().filter((launch) -> !launch.factoryBean.isReadinessDeferred()).toList();
+	}
+
+	private CompletableFuture<Void> runAll(List<Launch> launches, Consumer<Launch> action) {
+		CompletableFuture<?>[] futures = launches.stream()
+				.map((launch) -> CompletableFuture.runAsync(() -> action.accept(launch), this.executor))
+				.toArray(CompletableFuture[]::new);
+		return CompletableFuture.allOf(futures);
+	}
+
+	private void logTimings() {
+		if (!logger.isInfoEnabled()) {
+			return;
+		}
+		List<Launch> awaited = getAwaitedLaunches();
+		long started = this.launches.stream().mapToLong((launch) -> launch.startNanos).min().orElse(0);
+		long ready = awaited.stream().mapToLong((launch) -> launch.readyNanos).max().orElse(started);
+		for (Launch launch : this.launches) {
+			if (launch.factoryBean.isReadinessDeferred()) {
+				logger.info(LogMessage.format("Launched '%s' in %d ms (readiness is awaited when it is used)",
+						launch.name(), millis(launch.launchedNanos - launch.startNanos)));
+			}
+			else {
+				logger.info(LogMessage.format("Started '%s' in %d ms (launched in %d ms)", launch.name(),
+						millis(launch.readyNanos - launch.startNanos),
+						millis(launch.launchedNanos - launch.startNanos)));
+			}
+		}
+		logger.info(LogMessage.format("Started %d server(s) in %d ms", awaited.size(), millis(ready - started)));
+	}
+
+	private static long millis(long nanos) {
+		return TimeUnit.NANOSECONDS.toMillis(nanos);
+	}
+
+	private static void join(CompletableFuture<Void> future) {
+		try {
+			future.join();
+		}
+		catch (CompletionException ex) {
+			if (ex.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			throw ex;
+		}
+	}
+
+	private static final class Launch {
+
+		private final CommonsExecWebServerFactoryBean factoryBean;
+
+		private long startNanos;
+
+		private long launchedNanos;
+
+		private long readyNanos;
+
+		private Launch(CommonsExecWebServerFactoryBean factoryBean) {
+			this.factoryBean = factoryBean;
+		}
+
+		private void launch() {
+			this.startNanos = System.nanoTime();
+			this.factoryBean.launch();
+			this.launchedNanos = System.nanoTime();
+		}
+
+		private void awaitReady() {
+			this.factoryBean.launch().getPort();
+			this.readyNanos = System.nanoTime();
+		}
+
+		private String name() {
+			return this.factoryBean.getBeanName();
+		}
+
+	}
+
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2012-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.experimental.boot.server.exec.detector;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+
+/**
+ * A main class that runs the main class of an application that is kept alive between
+ * test runs, and exits once no JVM has held a lease on the application for the idle
+ * timeout.
+ * <p>
+ * Every JVM that uses the application holds a lease by periodically updating the last
+ * modified time of a file named {@code <fingerprint>.<pid>.lease} in the
+ * {@value #DIRECTORY} directory. A lease that has not been updated within
+ * {@link #LEASE_EXPIRY} has expired. Before the application exits, the lock file
+ * {@code <fingerprint>.lock} is acquired, so that it never exits after a JVM has decided
+ * to use it.
+ * <p>
+ * This class must only depend on the JDK since it is loaded before Spring Boot.
+ *
+ * @author Rob Winch
+ */
+public final class KeepAliveMain {
+
+	/**
+	 * The system property containing the directory of the lease files.
+	 */
+	public static final String DIRECTORY = "testjars.keep-alive.directory";
+
+	/**
+	 * The system property containing the fingerprint of the application.
+	 */
+	public static final String FINGERPRINT = "testjars.keep-alive.fingerprint";
+
+	/**
+	 * The system property containing the idle timeout in ISO-8601 format.
+	 */
+	public static final String IDLE_TIMEOUT = "testjars.keep-alive.idle-timeout";
+
+	/**
+	 * The system property containing the main class of the application.
+	 */
+	public static final String MAIN_CLASS = "testjars.keep-alive.main-class";
+
+	/**
+	 * How often a lease is renewed.
+	 */
+	public static final Duration HEARTBEAT_INTERVAL = Duration.ofSeconds(10);
+
+	/**
+	 * How long a lease is held without being renewed.
+	 */
+	public static final Duration LEASE_EXPIRY = HEARTBEAT_INTERVAL.multipliedBy(3);
+
+	private final Path directory;
+
+	private final String fingerprint;
+
+	private final Duration idleTimeout;
+
+	private KeepAliveMain(Path directory, String fingerprint, Duration idleTimeout) {
+		this.directory = directory;
+		this.fingerprint = fingerprint;
+		this.idleTimeout = idleTimeout;
+	}
+
+	public static void main(String[] args) throws Throwable {
+		KeepAliveMain keepAlive = new KeepAliveMain(Path.of(System.getProperty(DIRECTORY)),
+				System.getProperty(FINGERPRINT), Duration.parse(System.getProperty(IDLE_TIMEOUT)));
+		Thread watchdog = new Thread(keepAlive::exitWhenIdle, "testjars-keep-alive");
+		watchdog.setDaemon(true);
+		watchdog.start();
+		Class<?> mainClass = Class.forName(System.getProperty(MAIN_CLASS), true,
+				KeepAliveMain.class.getClassLoader());
+		Method main = mainClass.getMethod("main", String[].class);
+		try {
+			main.invoke(null, (Object) args);
+		}
+		catch (InvocationTargetException ex) {
+			throw ex.getTargetException();
+		}
+	}
+
+	/**
+	 * Checks the leases every {@link #HEARTBEAT_INTERVAL} (or the idle timeout if it is
+	 * shorter) and exits once none has been held for the idle timeout.
+	 */
+	private void exitWhenIdle() {
+		long interval = Math.max(1, Math.min(HEARTBEAT_INTERVAL.toMillis(), this.idleTimeout.toMillis()));
+		long lastLeased = System.currentTimeMillis();
+		try {
+			while (true) {
+				Thread.sleep(interval);
+				if (isLeased()) {
+					lastLeased = System.currentTimeMillis();
+				}
+				else if (System.currentTimeMillis() - lastLeased >= this.idleTimeout.toMillis()) {
+					exitIfNotLeased();
+				}
+			}
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+		catch (IOException ex) {
+			System.err.println("Unable to check the leases of " + this.fingerprint + " in " + this.directory);
+			ex.printStackTrace();
+		}
+	}
+
+	private void exitIfNotLeased() throws IOException {
+		Path lockFile = this.directory.resolve(this.fingerprint + ".lock");
+		try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+				FileLock lock = channel.lock()) {
+			if (isLeased()) {
+				return;
+			}
+			System.out.println("Exiting since no JVM has used the application for " + this.idleTimeout);
+			Files.deleteIfExists(this.directory.resolve(this.fingerprint + ".server"));
+			Files.deleteIfExists(this.directory.resolve(this.fingerprint + ".port"));
+			Runtime.getRuntime().exit(0);
+		}
+	}
+
+	private boolean isLeased() throws IOException {
+		long expired = System.currentTimeMillis() - LEASE_EXPIRY.toMillis();
+		try (DirectoryStream<Path> leases = Files.newDirectoryStream(this.directory, this.fingerprint + ".*.lease")) {
+			for (Path lease : leases) {
+				if (Files.getLastModifiedTime(lease).toMillis() >= expired) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+}
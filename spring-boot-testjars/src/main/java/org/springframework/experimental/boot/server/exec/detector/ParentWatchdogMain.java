@@ -0,0 +1,86 @@
+/*
+ * Copyright 2012-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.experimental.boot.server.exec.detector;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * A main class that runs the main class of an application (the first argument) with the
+ * remaining arguments, and exits the application once the JVM that launched it exits,
+ * so that the application does not outlive the tests if the JVM that runs the tests is
+ * killed.
+ * <p>
+ * The process id of the JVM that launched the application is read from the
+ * {@value #PARENT_PID} system property. The application exits with {@link System#exit},
+ * so that its shutdown hooks run.
+ * <p>
+ * This class must only depend on the JDK since it is loaded before Spring Boot.
+ *
+ * @author Rob Winch
+ */
+public final class ParentWatchdogMain {
+
+	/**
+	 * The system property containing the process id of the JVM that launched the
+	 * application.
+	 */
+	public static final String PARENT_PID = "testjars.parent-pid";
+
+	public static void main(String[] args) throws Throwable {
+		if (args.length == 0) {
+			throw new IllegalArgumentException("The main class of the application must be the first argument");
+		}
+		watchParent();
+		Class<?> mainClass = Class.forName(args[0], true, ParentWatchdogMain.class.getClassLoader());
+		Method main = mainClass.getMethod("main", String[].class);
+		try {
+			main.invoke(null, (Object) Arrays.copyOfRange(args, 1, args.length));
+		}
+		catch (InvocationTargetException ex) {
+			throw ex.getTargetException();
+		}
+	}
+
+	/**
+	 * Exits the current JVM once the process with the id of the {@value #PARENT_PID}
+	 * system property exits. Does nothing if the system property is not set.
+	 */
+	public static void watchParent() {
+		String parentPid = System.getProperty(PARENT_PID);
+		if (parentPid == null) {
+			return;
+		}
+		Optional<ProcessHandle> parent = ProcessHandle.of(Long.parseLong(parentPid));
+		if (parent.isEmpty()) {
+			exit(parentPid);
+			return;
+		}
+		parent.get().onExit().thenRun(() -> exit(parentPid));
+	}
+
+	private static void exit(String parentPid) {
+		System.err.println("Exiting since the process " + parentPid + " that launched the application exited");
+		Runtime.getRuntime().exit(1);
+	}
+
+	private ParentWatchdogMain() {
+	}
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2012-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.experimental.boot.server.exec.detector;
+
+import java.io.File;
+import java.io.InputStreamReader;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+
+/**
+ * A main class for a JVM that is started before it is needed and then waits for the
+ * application to run. This allows the cost of starting the JVM to be paid before the
+ * application is requested.
+ * <p>
+ * The request is read from standard input in {@link Properties} format. It contains the
+ * {@value #CLASSPATH} and {@value #MAIN_CLASS} of the application and the system
+ * properties to set prefixed with {@value #SYSTEM_PROPERTY_PREFIX}. The application is
+ * then run with a new {@link URLClassLoader} whose parent is the platform class loader,
+ * so that the classes of the launcher are not visible to the application. If standard
+ * input is closed without a request (e.g. the JVM that started the launcher exited), the
+ * launcher exits. Once the application runs, it exits when the JVM that started the
+ * launcher exits (see {@link ParentWatchdogMain#watchParent()}).
+ * <p>
+ * This class must only depend on the JDK since it is loaded before the classpath of the
+ * application is known.
+ *
+ * @author Rob Winch
+ */
+public final class ResidentLauncherMain {
+
+	/**
+	 * The key of the classpath of the application.
+	 */
+	public static final String CLASSPATH = "classpath";
+
+	/**
+	 * The key of the main class of the application.
+	 */
+	public static final String MAIN_CLASS = "main-class";
+
+	/**
+	 * The prefix of the keys of the system properties of the application.
+	 */
+	public static final String SYSTEM_PROPERTY_PREFIX = "system-property.";
+
+	public static void main(String[] args) throws Throwable {
+		Properties request = new Properties();
+		request.load(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+		String mainClassName = request.getProperty(MAIN_CLASS);
+		if (mainClassName == null) {
+			return;
+		}
+		String classpath = request.getProperty(CLASSPATH, "");
+		for (String name : request.stringPropertyNames()) {
+			if (name.startsWith(SYSTEM_PROPERTY_PREFIX)) {
+				System.setProperty(name.substring(SYSTEM_PROPERTY_PREFIX.length()), request.getProperty(name));
+			}
+		}
+		ParentWatchdogMain.watchParent();
+		System.setProperty("java.class.path", classpath);
+		ClassLoader classLoader = new URLClassLoader(toUrls(classpath), ClassLoader.getPlatformClassLoader());
+		Thread.currentThread().setContextClassLoader(classLoader);
+		Class<?> mainClass = Class.forName(mainClassName, true, classLoader);
+		Method main = mainClass.getMethod("main", String[].class);
+		try {
+			main.invoke(null, (Object) args);
+		}
+		catch (InvocationTargetException ex) {
+			throw ex.getTargetException();
+		}
+	}
+
+	private static URL[] toUrls(String classpath) throws Exception {
+		if (classpath.isEmpty()) {
+			return new URL[0];
+		}
+		String[] entries = classpath.split(File.pathSeparator);
+		URL[] urls = new URL[entries.length];
+		for (int i = 0; i < entries.length; i++) {
+			urls[i] = new File(entries[i]).toURI().toURL();
+		}
+		return urls;
+	}
+
+	private ResidentLauncherMain() {
+	}
+
+}
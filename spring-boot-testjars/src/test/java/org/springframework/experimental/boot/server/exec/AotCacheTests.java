@@ -0,0 +1,47 @@
+/*
+ * Copyright 2012-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.experimental.boot.server.exec;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AotCacheTests {
+
+	@TempDir
+	Path javaHome;
+
+	@Test
+	void isSupportedWhenJdk24ThenTrue() throws Exception {
+		assertThat(AotCache.isSupported(javaExecutable("24+36"))).isTrue();
+	}
+
+	@Test
+	void isSupportedWhenJdk21ThenFalse() throws Exception {
+		assertThat(AotCache.isSupported(javaExecutable("21.0.1+12-LTS"))).isFalse();
+	}
+
+	private String javaExecutable(String runtimeVersion) throws Exception {
+		Files.writeString(this.javaHome.resolve("release"), "JAVA_RUNTIME_VERSION=\"" + runtimeVersion + "\"\n");
+		return this.javaHome.resolve("bin/java").toString();
+	}
+
+}
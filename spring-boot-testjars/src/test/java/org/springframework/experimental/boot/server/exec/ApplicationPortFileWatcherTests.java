@@ -19,11 +19,14 @@ package org.springframework.experimental.boot.server.exec;
 import java.io.File;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
 
 class ApplicationPortFileWatcherTests {
 
@@ -59,6 +62,39 @@ class ApplicationPortFileWatcherTests {
 		assertThat(watcher.getApplicationPort()).isEqualTo(expectedPort);
 	}
 
+	@Test
+	void getApplicationPortWhenClosedThenInterrupted(@TempDir Path tempDir) throws Exception {
+		File applicationPort = tempDir.resolve("application.port").toFile();
+		ApplicationPortFileWatcher watcher = new ApplicationPortFileWatcher(applicationPort);
+		delay(watcher::close);
+		assertThatExceptionOfType(InterruptedException.class).isThrownBy(watcher::getApplicationPort);
+	}
+
+	@Test
+	void getApplicationPortWhenClosedBeforeThenInterrupted(@TempDir Path tempDir) throws Exception {
+		File applicationPort = tempDir.resolve("application.port").toFile();
+		ApplicationPortFileWatcher watcher = new ApplicationPortFileWatcher(applicationPort);
+		watcher.close();
+		assertThatExceptionOfType(InterruptedException.class).isThrownBy(watcher::getApplicationPort);
+	}
+
+	@Test
+	void getApplicationPortWhenTimeoutThenTimeoutException(@TempDir Path tempDir) throws Exception {
+		File applicationPort = tempDir.resolve("application.port").toFile();
+		ApplicationPortFileWatcher watcher = new ApplicationPortFileWatcher(applicationPort);
+		assertThatExceptionOfType(TimeoutException.class)
+				.isThrownBy(() -> watcher.getApplicationPort(Duration.ofMillis(100)));
+	}
+
+	@Test
+	void getApplicationPortWhenWrittenBeforeTimeout(@TempDir Path tempDir) throws Exception {
+		int expectedPort = 9000;
+		Path applicationPortPath = tempDir.resolve("application.port");
+		ApplicationPortFileWatcher watcher = new ApplicationPortFileWatcher(applicationPortPath.toFile());
+		delay(() -> Files.writeString(applicationPortPath, String.valueOf(expectedPort)));
+		assertThat(watcher.getApplicationPort(Duration.ofSeconds(30))).isEqualTo(expectedPort);
+	}
+
 	void delay(Delayed r) {
 		new Thread(r).start();
 	}
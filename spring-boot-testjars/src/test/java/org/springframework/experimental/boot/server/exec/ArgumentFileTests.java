@@ -0,0 +1,90 @@
+/*
+ * Copyright 2012-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.experimental.boot.server.exec;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import org.apache.commons.exec.CommandLine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.experimental.boot.server.exec.detector.ParentWatchdogMain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ArgumentFileTests {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void createWhenPortFileThenRemainsOnCommandLine() {
+		CommandLine argumentFileCommandLine = ArgumentFile.create(commandLine("/tmp/a.port"), this.directory);
+		assertThat(argumentFileCommandLine.getExecutable()).isEqualTo("java");
+		assertThat(argumentFileCommandLine.getArguments()).hasSize(2);
+		assertThat(argumentFileCommandLine.getArguments()[0]).isEqualTo("-DPORTFILE=/tmp/a.port");
+		assertThat(argumentFileCommandLine.getArguments()[1]).startsWith("@" + this.directory.toAbsolutePath());
+	}
+
+	@Test
+	void createThenArgumentsQuoted() throws Exception {
+		CommandLine argumentFileCommandLine = ArgumentFile.create(commandLine("/tmp/a.port"), this.directory);
+		assertThat(Files.readAllLines(argumentFile(argumentFileCommandLine))).containsExactly("\"-Da=b c\"",
+				"\"-Dpath=C:\\\\app \\\"1\\\"\"", "\"-classpath\"", "\"a.jar\"", "\"example.Main\"");
+	}
+
+	@Test
+	void createWhenSameCommandThenFileReused() throws Exception {
+		Path argumentFile = argumentFile(ArgumentFile.create(commandLine("/tmp/a.port"), this.directory));
+		FileTime lastModified = FileTime.fromMillis(0);
+		Files.setLastModifiedTime(argumentFile, lastModified);
+		assertThat(argumentFile(ArgumentFile.create(commandLine("/tmp/b.port"), this.directory)))
+				.isEqualTo(argumentFile);
+		assertThat(Files.getLastModifiedTime(argumentFile)).isEqualTo(lastModified);
+	}
+
+	@Test
+	void createWhenDifferentParentPidThenFileReused() throws Exception {
+		CommandLine first = ArgumentFile.create(commandLine("/tmp/a.port", "1"), this.directory);
+		CommandLine second = ArgumentFile.create(commandLine("/tmp/a.port", "2"), this.directory);
+		assertThat(argumentFile(second)).isEqualTo(argumentFile(first));
+		assertThat(second.getArguments()).contains("-D" + ParentWatchdogMain.PARENT_PID + "=2");
+		assertThat(this.directory.toFile().list()).hasSize(1);
+	}
+
+	private static CommandLine commandLine(String portFile) {
+		CommandLine commandLine = new CommandLine("java");
+		commandLine.addArguments(new String[] { "-Da=b c", "-Dpath=C:\\app \"1\"", "-DPORTFILE=" + portFile,
+				"-classpath", "a.jar", "example.Main" }, false);
+		return commandLine;
+	}
+
+	private static CommandLine commandLine(String portFile, String parentPid) {
+		CommandLine commandLine = new CommandLine("java");
+		commandLine.addArguments(new String[] { "-Da=b c", "-DPORTFILE=" + portFile,
+				"-D" + ParentWatchdogMain.PARENT_PID + "=" + parentPid, "-classpath", "a.jar", "example.Main" }, false);
+		return commandLine;
+	}
+
+	private static Path argumentFile(CommandLine argumentFileCommandLine) {
+		String[] arguments = argumentFileCommandLine.getArguments();
+		return Path.of(arguments[arguments.length - 1].substring(1));
+	}
+
+}
@@ -21,18 +21,34 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.junit.jupiter.api.io.TempDir;
 
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.experimental.boot.server.exec.detector.ParentWatchdogMain;
+import org.springframework.util.unit.DataSize;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatException;
 import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 
 class CommonsExecWebServerFactoryBeanTests {
 
@@ -66,6 +82,41 @@ class CommonsExecWebServerFactoryBeanTests {
 		}
 	}
 
+	@Test
+	void getPortWhenServerFailsThenFailureContainsExitValueAndOutput() throws Exception {
+		try (CommonsExecWebServer server = CommonsExecWebServerFactoryBean.builder().getObject()) {
+			assertThatException().isThrownBy(() -> server.getPort()).havingCause()
+					.withMessageContaining("exited with code 1")
+					.withMessageContaining("could not be launched as a Spring Boot fat jar");
+		}
+	}
+
+	@Test
+	void getOutputTailWhenServerFailsThenContainsOutput() throws Exception {
+		try (CommonsExecWebServer server = CommonsExecWebServerFactoryBean.builder()
+				.outputTailSize(DataSize.ofKilobytes(64)).getObject()) {
+			server.waitForServer();
+			assertThat(server.getOutputTail()).contains("could not be launched as a Spring Boot fat jar");
+		}
+	}
+
+	@Test
+	void outputTailSizeWhenZeroThenIllegalArgumentException() {
+		assertThatIllegalArgumentException()
+				.isThrownBy(() -> CommonsExecWebServerFactoryBean.builder().outputTailSize(DataSize.ofBytes(0)));
+	}
+
+	@Test
+	void getPortWhenStartupTimeoutThenFailureContainsThreadDump() throws Exception {
+		CommonsExecWebServerFactoryBean factory = CommonsExecWebServerFactoryBean.builder()
+				.mainClass(SleepingMain.class.getName()).classpath((cp) -> cp.classes(SleepingMain.class))
+				.startupTimeout(Duration.ofSeconds(2));
+		try (CommonsExecWebServer server = factory.getObject()) {
+			assertThatException().isThrownBy(() -> server.getPort()).havingCause()
+					.withMessageContaining("within PT2S").withMessageContaining("SleepingMain.main");
+		}
+	}
+
 	@Test
 	void mainClass() throws Exception {
 		String mainClass = "example.Main";
@@ -89,6 +140,17 @@ class CommonsExecWebServerFactoryBeanTests {
 				.isEqualTo("org.springframework.experimental.boot.server.exec.detector.SpringBootFatJarMain");
 	}
 
+	@Test
+	void mainClassThenRunUntilParentExits() throws Exception {
+		try (CommonsExecWebServer webServer = CommonsExecWebServerFactoryBean.builder().mainClass("example.Main")
+				.getObject()) {
+			List<String> args = Arrays.asList(webServer.getCommandLine().getArguments());
+			assertThat(args).contains("-D" + ParentWatchdogMain.PARENT_PID + "=" + ProcessHandle.current().pid());
+			assertThat(args.subList(args.size() - 2, args.size()))
+					.containsExactly(ParentWatchdogMain.class.getName(), "example.Main");
+		}
+	}
+
 	@Test
 	void doesNotAddJarLauncherDetectorLauncherDetectorWhenMainClassDefined() throws Exception {
 		String mainClass = "example.Main";
@@ -218,6 +280,361 @@ class CommonsExecWebServerFactoryBeanTests {
 				.contains("-agentlib:jdwp=transport=dt_socket,server=y,suspend=n,address=*:5005");
 	}
 
+	@Test
+	void classDataSharingWhenEnabledThenDirectoriesReplacedWithJars(@TempDir Path archiveDirectory) throws Exception {
+		CommonsExecWebServerFactoryBean factory = CommonsExecWebServerFactoryBean.builder()
+				.classDataSharing((cds) -> cds.enabled(true).archiveDirectory(archiveDirectory));
+		try (CommonsExecWebServer server = factory.getObject()) {
+			List<String> args = Arrays.asList(server.getCommandLine().getArguments());
+			String classpath = args.get(args.indexOf("-classpath") + 1);
+			assertThat(classpath.split(File.pathSeparator))
+					.allSatisfy((entry) -> assertThat(new File(entry)).isFile());
+			assertThat(classpath).contains(archiveDirectory.toString());
+		}
+	}
+
+	@Test
+	void classDataSharingWhenTrainingFailsThenStartsWithoutArchive(@TempDir Path archiveDirectory) throws Exception {
+		CommonsExecWebServerFactoryBean factory = CommonsExecWebServerFactoryBean.builder()
+				.classDataSharing((cds) -> cds.enabled(true).archiveDirectory(archiveDirectory));
+		try (CommonsExecWebServer server = factory.getObject()) {
+			assertThat(server.getCommandLine().getArguments())
+					.noneMatch((arg) -> arg.startsWith("-XX:SharedArchiveFile="));
+			assertThat(archiveDirectory.toFile().list()).anyMatch((name) -> name.endsWith(".failed"));
+		}
+	}
+
+	@Test
+	void memoryBudgetWhenEnabledThenMemoryLimitedToShares() throws Exception {
+		CommonsExecWebServerFactoryBean factory = CommonsExecWebServerFactoryBean.builder()
+				.memoryBudget((budget) -> budget.enabled(true).total(DataSize.ofGigabytes(4)).shares(4))
+				.jvmOptions((options) -> options.add("-Xmx256m"));
+		try (CommonsExecWebServer server = factory.getObject()) {
+			List<String> args = Arrays.asList(server.getCommandLine().getArguments());
+			assertThat(args).containsSubsequence("-Xmx716m", "-XX:MaxMetaspaceSize=204m",
+					"-XX:ReservedCodeCacheSize=102m", "-Xmx256m");
+		}
+	}
+
+	@Test
+	void memoryBudgetWhenWeightGreaterThanSharesThenIllegalArgumentException() {
+		CommonsExecWebServerFactoryBean factory = CommonsExecWebServerFactoryBean.builder()
+				.memoryBudget((budget) -> budget.enabled(true).total(DataSize.ofGigabytes(4)).shares(4).weight(5));
+		assertThatIllegalArgumentException().isThrownBy(factory::getObject).withMessageContaining("weight 5");
+	}
+
+	@Test
+	void cpuPartitionWhenEnabledThenActiveProcessorCount() throws Exception {
+		CommonsExecWebServerFactoryBean factory = CommonsExecWebServerFactoryBean.builder()
+				.cpuPartition((cpu) -> cpu.enabled(true).processors(3).affinity(false));
+		try (CommonsExecWebServer server = factory.getObject()) {
+			assertThat(server.getCommandLine().getArguments()).contains("-XX:ActiveProcessorCount=3");
+		}
+	}
+
+	@Test
+	void sharedWhenIdenticalThenSameServer() throws Exception {
+		CommonsExecWebServerFactoryBean first = sleepingFactory().shared(true);
+		CommonsExecWebServerFactoryBean second = sleepingFactory().shared(true);
+		CommonsExecWebServer server = first.getObject();
+		assertThat(second.getObject()).isSameAs(server);
+		first.destroy();
+		assertThat(server.hasExited()).isFalse();
+		second.destroy();
+		assertTimeoutPreemptively(Duration.ofSeconds(30), server::waitForServer);
+	}
+
+	@Test
+	void sharedWhenFalseThenDifferentServers() throws Exception {
+		CommonsExecWebServerFactoryBean first = sleepingFactory();
+		CommonsExecWebServerFactoryBean second = sleepingFactory();
+		try {
+			assertThat(second.getObject()).isNotSameAs(first.getObject());
+		}
+		finally {
+			first.destroy();
+			second.destroy();
+		}
+	}
+
+	@Test
+	void destroyWhenLaunchedTogetherThenOtherServerNotStopped() throws Exception {
+		CommonsExecWebServerFactoryBean first = sleepingFactory();
+		CommonsExecWebServerFactoryBean second = sleepingFactory();
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		beanFactory.registerSingleton("first", first);
+		beanFactory.registerSingleton("second", second);
+		first.setBeanFactory(beanFactory);
+		try {
+			first.getObject();
+			CommonsExecWebServer server = second.launch();
+			first.destroy();
+			assertThat(second.isRunning()).isTrue();
+			assertThat(server.hasExited()).isFalse();
+		}
+		finally {
+			first.destroy();
+			second.destroy();
+		}
+	}
+
+	@Test
+	void stopThenServerStoppedBeforeCallback() throws Exception {
+		CommonsExecWebServerFactoryBean factory = sleepingFactory();
+		CommonsExecWebServer server = factory.getObject();
+		CountDownLatch stopped = new CountDownLatch(1);
+		factory.stop(stopped::countDown);
+		assertThat(stopped.await(30, TimeUnit.SECONDS)).isTrue();
+		assertThat(factory.isRunning()).isFalse();
+		assertTimeoutPreemptively(Duration.ofSeconds(30), server::waitForServer);
+	}
+
+	@Test
+	void redirectOutputWhenServerFailsThenFailureContainsOutputFile(@TempDir Path directory) throws Exception {
+		CommonsExecWebServerFactoryBean factory = CommonsExecWebServerFactoryBean.builder()
+				.redirectOutput((output) -> output.enabled(true).directory(directory));
+		factory.setBeanName("redirected");
+		try (CommonsExecWebServer server = factory.getObject()) {
+			assertThatException().isThrownBy(() -> server.getPort()).havingCause()
+					.withMessageContaining("exited with code 1")
+					.withMessageContaining(directory.resolve("redirected-").toString())
+					.withMessageContaining("could not be launched as a Spring Boot fat jar");
+		}
+	}
+
+	@Test
+	void inProcessWhenEnabledThenPortReported() throws Exception {
+		CommonsExecWebServerFactoryBean factory = CommonsExecWebServerFactoryBean.builder()
+				.inProcess((inProcess) -> inProcess.enabled(true))
+				.mainClass(InProcessMain.class.getName())
+				.classpath((cp) -> cp.classes(InProcessMain.class, InProcessMain.Admin.class,
+						InProcessMain.AdminMBean.class))
+				.systemProperties((props) -> props.put("port", "1234"));
+		try (CommonsExecWebServer server = factory.getObject()) {
+			assertThat(server.getPort()).isEqualTo(1234);
+		}
+	}
+
+	@Test
+	void inProcessWhenServerFailsThenFailureContainsOutput() throws Exception {
+		CommonsExecWebServerFactoryBean factory = CommonsExecWebServerFactoryBean.builder()
+				.inProcess((inProcess) -> inProcess.enabled(true))
+				.mainClass(InProcessMain.class.getName())
+				.classpath((cp) -> cp.classes(InProcessMain.class))
+				.systemProperties((props) -> props.put("fail", "true"));
+		try (CommonsExecWebServer server = factory.getObject()) {
+			assertThatException().isThrownBy(() -> server.getPort()).havingCause()
+					.withMessageContaining("exited with code 1")
+					.withMessageContaining("Failed to start");
+		}
+	}
+
+	@Test
+	void readyWhenOutputMatchesThenPortFromGroup() throws Exception {
+		CommonsExecWebServerFactoryBean factory = CommonsExecWebServerFactoryBean.builder()
+				.mainClass(SystemPropertyMain.class.getName()).classpath((cp) -> cp.classes(SystemPropertyMain.class))
+				.systemProperties((props) -> {
+					props.put("testjars.print", "ready.port");
+					props.put("ready.port", "8123");
+				})
+				.readyWhenOutputMatches("^ready\\.port=(\\d+)$");
+		try (CommonsExecWebServer server = factory.getObject()) {
+			assertThat(server.getPort()).isEqualTo(8123);
+		}
+	}
+
+	@Test
+	void readyWhenOutputMatchesAndRedirectOutputThenPortFromGroup(@TempDir Path directory) throws Exception {
+		CommonsExecWebServerFactoryBean factory = CommonsExecWebServerFactoryBean.builder()
+				.mainClass(SystemPropertyMain.class.getName()).classpath((cp) -> cp.classes(SystemPropertyMain.class))
+				.systemProperties((props) -> {
+					props.put("testjars.print", "ready.port");
+					props.put("ready.port", "8123");
+				})
+				.redirectOutput((output) -> output.enabled(true).directory(directory))
+				.readyWhenOutputMatches("^ready\\.port=(\\d+)$");
+		try (CommonsExecWebServer server = factory.getObject()) {
+			assertThat(server.getPort()).isEqualTo(8123);
+		}
+	}
+
+	@Test
+	void readyWhenOutputMatchesWhenNoMatchThenFailureContainsPatterns() throws Exception {
+		CommonsExecWebServerFactoryBean factory = CommonsExecWebServerFactoryBean.builder()
+				.mainClass(SystemPropertyMain.class.getName()).classpath((cp) -> cp.classes(SystemPropertyMain.class))
+				.readyWhenOutputMatches("Started");
+		try (CommonsExecWebServer server = factory.getObject()) {
+			assertThatException().isThrownBy(() -> server.getPort()).havingCause()
+					.withMessageContaining("exited with code 0 before its output matched [Started]");
+		}
+	}
+
+	@Test
+	void readinessWhenPathNotAbsoluteThenIllegalArgumentException() {
+		assertThatIllegalArgumentException().isThrownBy(() -> CommonsExecWebServerFactoryBean.builder()
+				.readiness((readiness) -> readiness.enabled(true).path("actuator/health")));
+	}
+
+	@Test
+	void readyWhenOutputMatchesAndInProcessThenIllegalStateException() {
+		CommonsExecWebServerFactoryBean factory = CommonsExecWebServerFactoryBean.builder()
+				.inProcess((inProcess) -> inProcess.enabled(true))
+				.readyWhenOutputMatches("Started");
+		assertThatIllegalStateException().isThrownBy(() -> factory.getObject());
+	}
+
+	@Test
+	void argumentFileWhenEnabledThenApplicationLaunched(@TempDir Path directory) throws Exception {
+		CommonsExecWebServerFactoryBean factory = CommonsExecWebServerFactoryBean.builder()
+				.mainClass(SystemPropertyMain.class.getName()).classpath((cp) -> cp.classes(SystemPropertyMain.class))
+				.systemProperties((props) -> {
+					props.put("testjars.print", "ready.port");
+					props.put("ready.port", "8123 and more");
+				})
+				.argumentFile((argumentFile) -> argumentFile.enabled(true).directory(directory))
+				.readyWhenOutputMatches("^ready\\.port=(\\d+) and more$");
+		try (CommonsExecWebServer server = factory.getObject()) {
+			assertThat(server.getPort()).isEqualTo(8123);
+			assertThat(server.getCommandLine().getArguments()).contains("-classpath");
+			assertThat(directory).isDirectoryContaining("glob:**.args");
+		}
+	}
+
+	@Test
+	void pathingJarWhenEnabledThenApplicationLaunchedWithPathingJar(@TempDir Path directory) throws Exception {
+		try (CommonsExecWebServer server = pathingJarFactory(directory).getObject()) {
+			assertThat(server.getPort()).isEqualTo(-1);
+			assertThat(directory).isDirectoryContaining("glob:**pathing-*.jar");
+		}
+	}
+
+	@Test
+	void pathingJarWhenLaunchedTwiceThenSamePathingJar(@TempDir Path directory) throws Exception {
+		try (CommonsExecWebServer first = pathingJarFactory(directory).getObject();
+				CommonsExecWebServer second = pathingJarFactory(directory).getObject()) {
+			assertThat(first.getPort()).isEqualTo(-1);
+			assertThat(second.getPort()).isEqualTo(-1);
+			try (Stream<Path> files = Files.list(directory)) {
+				assertThat(files.filter((file) -> file.getFileName().toString().startsWith("pathing-"))).hasSize(1);
+			}
+		}
+	}
+
+	@Test
+	void readyAsyncWhenServerFailsThenCompletedExceptionally() throws Exception {
+		try (CommonsExecWebServer server = CommonsExecWebServerFactoryBean.builder().getObject()) {
+			assertThat(server.readyAsync()).failsWithin(Duration.ofMinutes(1))
+					.withThrowableOfType(ExecutionException.class)
+					.withMessageContaining("exited with code 1");
+		}
+	}
+
+	@Test
+	void startAsyncWhenServersReadyThenCompletedWithServers() throws Exception {
+		try (CommonsExecWebServer first = readyPortServer("8123").getObject();
+				CommonsExecWebServer second = readyPortServer("8124").getObject()) {
+			CompletableFuture<CommonsExecWebServer> firstReady = first.startAsync();
+			CompletableFuture<CommonsExecWebServer> secondReady = second.startAsync();
+			assertThat(CompletableFuture.allOf(firstReady, secondReady)).succeedsWithin(Duration.ofMinutes(1));
+			assertThat(firstReady.join().getPort()).isEqualTo(8123);
+			assertThat(secondReady.join().getPort()).isEqualTo(8124);
+		}
+	}
+
+	@Test
+	void readyAsyncWhenCompletedByCallerThenServerNotAffected() throws Exception {
+		try (CommonsExecWebServer server = readyPortServer("8123").getObject()) {
+			server.readyAsync().complete(1);
+			assertThat(server.readyAsync()).succeedsWithin(Duration.ofMinutes(1)).isEqualTo(8123);
+		}
+	}
+
+	private static CommonsExecWebServerFactoryBean readyPortServer(String port) {
+		return CommonsExecWebServerFactoryBean.builder()
+				.mainClass(SystemPropertyMain.class.getName()).classpath((cp) -> cp.classes(SystemPropertyMain.class))
+				.systemProperties((props) -> {
+					props.put("testjars.print", "ready.port");
+					props.put("ready.port", port);
+				})
+				.readyWhenOutputMatches("^ready\\.port=(\\d+)$");
+	}
+
+	@Test
+	void launcherPoolWhenServerFailsThenFailureContainsExitValueAndOutput() throws Exception {
+		CommonsExecWebServerFactoryBean factory = CommonsExecWebServerFactoryBean.builder()
+				.launcherPool((pool) -> pool.enabled(true));
+		try (CommonsExecWebServer server = factory.getObject()) {
+			assertThatException().isThrownBy(() -> server.getPort()).havingCause()
+					.withMessageContaining("exited with code 1")
+					.withMessageContaining("could not be launched as a Spring Boot fat jar");
+		}
+	}
+
+	@Test
+	void launcherPoolSizeWhenZeroThenIllegalArgumentException() {
+		assertThatIllegalArgumentException().isThrownBy(
+				() -> CommonsExecWebServerFactoryBean.builder().launcherPool((pool) -> pool.size(0)));
+	}
+
+	@Test
+	void jvmProfileWhenFastStartThenJvmOptionsBeforeClasspath() throws Exception {
+		CommonsExecWebServerFactoryBean factory = CommonsExecWebServerFactoryBean.builder()
+				.jvmProfile(JvmProfile.FAST_START);
+		try (CommonsExecWebServer server = factory.getObject()) {
+			List<String> args = Arrays.asList(server.getCommandLine().getArguments());
+			assertThat(args).containsSubsequence("-XX:TieredStopAtLevel=1", "-XX:+UseSerialGC", "-classpath");
+		}
+	}
+
+	@Test
+	void jvmOptionsWhenJvmProfileThenJvmOptionsAfterProfile() throws Exception {
+		CommonsExecWebServerFactoryBean factory = CommonsExecWebServerFactoryBean.builder()
+				.jvmProfile(JvmProfile.THROUGHPUT)
+				.jvmOptions((options) -> options.add("-Xmx256m"));
+		try (CommonsExecWebServer server = factory.getObject()) {
+			List<String> args = Arrays.asList(server.getCommandLine().getArguments());
+			assertThat(args).containsSubsequence("-XX:+UseParallelGC", "-Xmx256m", "-classpath");
+		}
+	}
+
+	@Test
+	void jvmProfileWhenNullThenIllegalArgumentException() {
+		assertThatIllegalArgumentException()
+				.isThrownBy(() -> CommonsExecWebServerFactoryBean.builder().jvmProfile(null));
+	}
+
+	@Test
+	@EnabledForJreRange(max = JRE.JAVA_21)
+	void aotCacheWhenNotSupportedThenUsesClassDataSharing(@TempDir Path directory) throws Exception {
+		Path aotDirectory = directory.resolve("aot");
+		Path cdsDirectory = directory.resolve("cds");
+		CommonsExecWebServerFactoryBean factory = CommonsExecWebServerFactoryBean.builder()
+				.aotCache((aot) -> aot.enabled(true).cacheDirectory(aotDirectory))
+				.classDataSharing((cds) -> cds.enabled(true).archiveDirectory(cdsDirectory));
+		try (CommonsExecWebServer server = factory.getObject()) {
+			List<String> args = Arrays.asList(server.getCommandLine().getArguments());
+			assertThat(args).noneMatch((arg) -> arg.startsWith("-XX:AOT"));
+			assertThat(args.get(args.indexOf("-classpath") + 1)).contains(cdsDirectory.toString());
+			assertThat(aotDirectory).doesNotExist();
+		}
+	}
+
+	private CommonsExecWebServerFactoryBean pathingJarFactory(Path directory) {
+		return CommonsExecWebServerFactoryBean.builder()
+				.mainClass(SystemPropertyMain.class.getName())
+				.classpath((cp) -> cp.classes(SystemPropertyMain.class))
+				.systemProperties((props) -> props.put("testjars.print", "java.class.path"))
+				.pathingJar((pathingJar) -> pathingJar.enabled(true).directory(directory))
+				.readyWhenOutputMatches("^java\\.class\\.path=.*pathing-\\w+\\.jar$");
+	}
+
+	private CommonsExecWebServerFactoryBean sleepingFactory() {
+		return CommonsExecWebServerFactoryBean.builder()
+				.mainClass(SleepingMain.class.getName())
+				.classpath((cp) -> cp.classes(SleepingMain.class))
+				.systemProperties((props) -> props.put("testjars.test", "sharedWhenIdentical"));
+	}
+
 	private void assertClasspathContainsResourceWithContent(List<ClasspathEntry> classpath, String resourceName,
 			String expectedContent) {
 		ClasspathEntry lastEntry = classpath.get(classpath.size() - 1);
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2012-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.experimental.boot.server.exec;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.jar.JarFile;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContentAddressedClasspathTests {
+
+	@TempDir
+	Path tmp;
+
+	@Test
+	void jarDirectoriesWhenSameContentThenSameJar() throws Exception {
+		Path first = directory("first", "hello");
+		Path second = directory("second", "hello");
+		Path jars = this.tmp.resolve("jars");
+		List<String> firstClasspath = ContentAddressedClasspath.jarDirectories(List.of(first.toString()), jars);
+		List<String> secondClasspath = ContentAddressedClasspath.jarDirectories(List.of(second.toString()), jars);
+		assertThat(firstClasspath).isEqualTo(secondClasspath);
+		try (JarFile jar = new JarFile(firstClasspath.get(0))) {
+			assertThat(jar.getEntry("a/")).isNotNull();
+			assertThat(jar.getEntry("a/b.txt")).isNotNull();
+		}
+	}
+
+	@Test
+	void jarDirectoriesWhenDifferentContentThenDifferentJar() throws Exception {
+		Path first = directory("first", "hello");
+		Path second = directory("second", "goodbye");
+		Path jars = this.tmp.resolve("jars");
+		List<String> classpath = ContentAddressedClasspath.jarDirectories(List.of(first.toString(), second.toString()),
+				jars);
+		assertThat(classpath).doesNotHaveDuplicates();
+	}
+
+	@Test
+	void jarDirectoriesWhenFileThenUnchanged() throws Exception {
+		Path file = Files.writeString(this.tmp.resolve("lib.jar"), "jar");
+		List<String> classpath = ContentAddressedClasspath.jarDirectories(List.of(file.toString()),
+				this.tmp.resolve("jars"));
+		assertThat(classpath).containsExactly(file.toString());
+	}
+
+	@Test
+	void pathingJarThenManifestListsEntries() throws Exception {
+		Path directory = directory("app", "hello");
+		Path lib = Files.writeString(this.tmp.resolve("my lib.jar"), "jar");
+		Path pathingJar = ContentAddressedClasspath.pathingJar(List.of(directory.toString(), lib.toString()),
+				this.tmp.resolve("jars"));
+		try (JarFile jar = new JarFile(pathingJar.toFile())) {
+			assertThat(jar.getManifest().getMainAttributes().getValue("Class-Path"))
+					.isEqualTo(directory.toUri() + " " + lib.toUri());
+		}
+	}
+
+	@Test
+	void pathingJarWhenSameEntriesThenSameJar() throws Exception {
+		Path jars = this.tmp.resolve("jars");
+		Path first = ContentAddressedClasspath.pathingJar(List.of("a.jar", "b.jar"), jars);
+		Path second = ContentAddressedClasspath.pathingJar(List.of("a.jar", "b.jar"), jars);
+		Path reordered = ContentAddressedClasspath.pathingJar(List.of("b.jar", "a.jar"), jars);
+		assertThat(first).isEqualTo(second);
+		assertThat(reordered).isNotEqualTo(first);
+	}
+
+	@Test
+	void fingerprintWhenContentChangesThenChanges() throws Exception {
+		Path directory = directory("app", "hello");
+		String before = ContentAddressedClasspath.fingerprint(List.of(directory.toString()), "java");
+		Files.writeString(directory.resolve("a/b.txt"), "goodbye");
+		String after = ContentAddressedClasspath.fingerprint(List.of(directory.toString()), "java");
+		assertThat(after).isNotEqualTo(before);
+	}
+
+	@Test
+	void fingerprintWhenValuesChangeThenChanges() throws Exception {
+		Path directory = directory("app", "hello");
+		String java17 = ContentAddressedClasspath.fingerprint(List.of(directory.toString()), "java17");
+		String java21 = ContentAddressedClasspath.fingerprint(List.of(directory.toString()), "java21");
+		assertThat(java17).isNotEqualTo(java21);
+	}
+
+	private Path directory(String name, String content) throws Exception {
+		Path directory = this.tmp.resolve(name);
+		Files.createDirectories(directory.resolve("a"));
+		Files.writeString(directory.resolve("a/b.txt"), content);
+		return directory;
+	}
+
+}
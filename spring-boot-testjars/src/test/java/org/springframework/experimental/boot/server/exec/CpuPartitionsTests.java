@@ -0,0 +1,96 @@
+/*
+ * Copyright 2012-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.experimental.boot.server.exec;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import org.apache.commons.exec.CommandLine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class CpuPartitionsTests {
+
+	@TempDir
+	Path lockDirectory;
+
+	@Test
+	void parseCpuListThenRangesExpanded() {
+		assertThat(CpuPartitions.parseCpuList("0-3,8,10-11")).containsExactly(0, 1, 2, 3, 8, 10, 11);
+	}
+
+	@Test
+	void reserveThenDisjointCpus() {
+		CpuPartitions partitions = new CpuPartitions(List.of(0, 1, 2, 3), this.lockDirectory);
+		assertThat(partitions.reserve(2).getCpus()).containsExactly(0, 1);
+		assertThat(partitions.reserve(2).getCpus()).containsExactly(2, 3);
+	}
+
+	@Test
+	void reserveWhenNotEnoughFreeCpusThenNoCpus() {
+		CpuPartitions partitions = new CpuPartitions(List.of(0, 1, 2), this.lockDirectory);
+		partitions.reserve(2);
+		assertThat(partitions.reserve(2).getCpus()).isEmpty();
+		assertThat(partitions.reserve(1).getCpus()).containsExactly(2);
+	}
+
+	@Test
+	void releaseThenCpusReserved() {
+		CpuPartitions partitions = new CpuPartitions(List.of(0, 1, 2, 3), this.lockDirectory);
+		CpuPartitions.Partition first = partitions.reserve(2);
+		CpuPartitions.Partition second = partitions.reserve(2);
+		first.release();
+		first.release();
+		assertThat(partitions.reserve(3).getCpus()).isEmpty();
+		second.release();
+		assertThat(partitions.reserve(4).getCpus()).containsExactly(0, 1, 2, 3);
+	}
+
+	@Test
+	void reserveWhenCpusLockedByOtherPartitionsThenDisjointCpus() {
+		CpuPartitions first = new CpuPartitions(List.of(0, 1, 2, 3), this.lockDirectory);
+		CpuPartitions second = new CpuPartitions(List.of(0, 1, 2, 3), this.lockDirectory);
+		CpuPartitions.Partition reserved = first.reserve(2);
+		assertThat(reserved.getCpus()).containsExactly(0, 1);
+		assertThat(second.reserve(2).getCpus()).containsExactly(2, 3);
+		assertThat(second.reserve(1).getCpus()).isEmpty();
+		reserved.release();
+		assertThat(second.reserve(2).getCpus()).containsExactly(0, 1);
+		assertThat(this.lockDirectory).isDirectoryContaining("glob:**cpu-0.lock");
+	}
+
+	@Test
+	void pinWhenNoCpusThenSameCommand() {
+		CommandLine commandLine = new CommandLine("java");
+		assertThat(CpuPartitions.NONE.pin(commandLine)).isSameAs(commandLine);
+	}
+
+	@Test
+	void pinThenPrefixedWithTaskset() {
+		assumeTrue(CpuPartitions.isAffinitySupported());
+		CommandLine commandLine = new CommandLine("java");
+		commandLine.addArgument("-version");
+		CpuPartitions.Partition partition = new CpuPartitions(List.of(4, 6), this.lockDirectory).reserve(2);
+		CommandLine pinned = partition.pin(commandLine);
+		assertThat(pinned.getExecutable()).endsWith("taskset");
+		assertThat(pinned.getArguments()).containsExactly("--cpu-list", "4,6", "java", "-version");
+	}
+
+}
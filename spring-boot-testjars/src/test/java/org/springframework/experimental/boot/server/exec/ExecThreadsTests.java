@@ -0,0 +1,89 @@
+/*
+ * Copyright 2012-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.experimental.boot.server.exec;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExecThreadsTests {
+
+	@AfterEach
+	void clearVirtualThreadsProperty() {
+		System.clearProperty(ExecThreads.VIRTUAL_THREADS_PROPERTY);
+	}
+
+	@Test
+	void platformThreadFactoryThenDaemonThread() {
+		Thread thread = ExecThreads.platformThreadFactory("testjars-test-").newThread(() -> {
+		});
+		assertThat(thread.isDaemon()).isTrue();
+		assertThat(thread.getName()).startsWith("testjars-test-");
+	}
+
+	@Test
+	void executorThenRunsOnNamedThread() throws Exception {
+		CompletableFuture<String> threadName = new CompletableFuture<>();
+		ExecThreads.executor("testjars-test-").execute(() -> threadName.complete(Thread.currentThread().getName()));
+		assertThat(threadName.get()).startsWith("testjars-test-");
+	}
+
+	@Test
+	@EnabledForJreRange(min = JRE.JAVA_21)
+	void executorWhenJava21ThenVirtualThread() throws Exception {
+		assertThat(isVirtual(executorThread())).isTrue();
+	}
+
+	@Test
+	@EnabledForJreRange(min = JRE.JAVA_21)
+	void executorWhenVirtualThreadsDisabledThenPlatformThread() throws Exception {
+		System.setProperty(ExecThreads.VIRTUAL_THREADS_PROPERTY, "false");
+		assertThat(isVirtual(executorThread())).isFalse();
+	}
+
+	@Test
+	@EnabledForJreRange(min = JRE.JAVA_21)
+	void platformThreadFactoryWhenJava21ThenDaemonPlatformThread() throws Exception {
+		Thread thread = ExecThreads.platformThreadFactory("testjars-test-").newThread(() -> {
+		});
+		assertThat(isVirtual(thread)).isFalse();
+		assertThat(thread.isDaemon()).isTrue();
+		assertThat(thread.getName()).startsWith("testjars-test-");
+	}
+
+	@Test
+	@EnabledForJreRange(max = JRE.JAVA_20)
+	void isVirtualWhenBeforeJava21ThenFalse() {
+		assertThat(ExecThreads.isVirtual()).isFalse();
+	}
+
+	private static Thread executorThread() throws Exception {
+		CompletableFuture<Thread> thread = new CompletableFuture<>();
+		ExecThreads.executor("testjars-test-").execute(() -> thread.complete(Thread.currentThread()));
+		return thread.get();
+	}
+
+	private static boolean isVirtual(Thread thread) throws Exception {
+		return (boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+	}
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2012-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.experimental.boot.server.exec;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class InProcessApplicationTests {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void startThenWritesPort() throws Exception {
+		InProcessApplication application = start(Map.of("port", "1234"));
+		try {
+			assertThat(awaitPort()).isEqualTo("1234");
+			assertThat(application.isAlive()).isTrue();
+		}
+		finally {
+			application.destroy();
+		}
+	}
+
+	@Test
+	void destroyThenShutsDown() throws Exception {
+		InProcessApplication application = start(Map.of("port", "1234"));
+		awaitPort();
+		application.destroy();
+		assertThat(application.waitFor()).isEqualTo(0);
+		assertThat(application.isAlive()).isFalse();
+		assertThat(ManagementFactory.getPlatformMBeanServer()
+				.queryNames(new ObjectName("org.springframework.experimental.boot.testjars:*"), null)).isEmpty();
+	}
+
+	@Test
+	void startWhenMainFailsThenExitsWithFailure() throws Exception {
+		InProcessApplication application = start(Map.of("fail", "true"));
+		String error = new String(application.getErrorStream().readAllBytes(), StandardCharsets.UTF_8);
+		assertThat(application.waitFor()).isEqualTo(1);
+		assertThat(error).contains("Failed to start");
+	}
+
+	@Test
+	void startWhenNoPortReportedThenExitsWithFailure() throws Exception {
+		InProcessApplication application = start(Map.of("register", "false"));
+		String error = new String(application.getErrorStream().readAllBytes(), StandardCharsets.UTF_8);
+		assertThat(application.waitFor()).isEqualTo(1);
+		assertThat(error).contains("did not report a port");
+	}
+
+	private InProcessApplication start(Map<String, String> properties) throws Exception {
+		Map<String, String> systemProperties = new HashMap<>(properties);
+		systemProperties.put("PORTFILE", portFile().toString());
+		String classes = Path.of(InProcessMain.class.getProtectionDomain().getCodeSource().getLocation().toURI())
+				.toString();
+		return InProcessApplication.start("test", List.of(classes), false, InProcessMain.class.getName(),
+				systemProperties);
+	}
+
+	private String awaitPort() throws Exception {
+		return assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+			while (!Files.exists(portFile())) {
+				Thread.sleep(10);
+			}
+			return Files.readString(portFile());
+		});
+	}
+
+	private Path portFile() {
+		return this.directory.resolve("application.port");
+	}
+
+}
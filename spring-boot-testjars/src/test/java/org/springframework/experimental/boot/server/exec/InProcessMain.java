@@ -0,0 +1,93 @@
+/*
+ * Copyright 2012-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.experimental.boot.server.exec;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+/**
+ * A main class that mimics the {@code SpringApplicationAdminMXBean} of a Spring Boot
+ * application, used for testing applications that run in process. The properties are
+ * read from the {@code --key=value} arguments.
+ */
+public final class InProcessMain {
+
+	public static void main(String[] args) throws JMException {
+		if (InProcessMain.class.getClassLoader() == ClassLoader.getSystemClassLoader()) {
+			throw new IllegalStateException("Not loaded by an isolated class loader");
+		}
+		Map<String, String> properties = new HashMap<>();
+		for (String arg : args) {
+			String[] property = arg.substring(2).split("=", 2);
+			properties.put(property[0], property[1]);
+		}
+		if (Boolean.parseBoolean(properties.get("fail"))) {
+			throw new IllegalStateException("Failed to start");
+		}
+		if (Boolean.parseBoolean(properties.getOrDefault("register", "true"))) {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(properties.get("spring.application.admin.jmx-name"));
+			server.registerMBean(new StandardMBean(new Admin(properties, name), AdminMBean.class), name);
+		}
+	}
+
+	private InProcessMain() {
+	}
+
+	public interface AdminMBean {
+
+		String getProperty(String key);
+
+		void shutdown();
+
+	}
+
+	static final class Admin implements AdminMBean {
+
+		private final Map<String, String> properties;
+
+		private final ObjectName name;
+
+		Admin(Map<String, String> properties, ObjectName name) {
+			this.properties = properties;
+			this.name = name;
+		}
+
+		@Override
+		public String getProperty(String key) {
+			return this.properties.get("local.server.port".equals(key) ? "port" : key);
+		}
+
+		@Override
+		public void shutdown() {
+			try {
+				ManagementFactory.getPlatformMBeanServer().unregisterMBean(this.name);
+			}
+			catch (JMException ex) {
+				throw new IllegalStateException(ex);
+			}
+		}
+
+	}
+
+}
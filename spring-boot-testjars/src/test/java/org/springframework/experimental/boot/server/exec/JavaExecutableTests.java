@@ -0,0 +1,59 @@
+/*
+ * Copyright 2012-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.experimental.boot.server.exec;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JavaExecutableTests {
+
+	@TempDir
+	Path javaHome;
+
+	@Test
+	void getVersionWhenCurrentJavaThenCurrentVersion() {
+		String executable = ProcessHandle.current().info().command().get();
+		JavaExecutable java = JavaExecutable.of(executable);
+		assertThat(java.getFeatureVersion()).isEqualTo(Runtime.version().feature());
+	}
+
+	@Test
+	void getVersionWhenReleaseFileThenVersionFromReleaseFile() throws Exception {
+		JavaExecutable java = JavaExecutable.of(javaExecutable("24.0.1+9"));
+		assertThat(java.getVersion()).isEqualTo(Runtime.Version.parse("24.0.1+9"));
+		assertThat(java.getFeatureVersion()).isEqualTo(24);
+		assertThat(java.getIdentity()).contains("JAVA_RUNTIME_VERSION=\"24.0.1+9\"");
+	}
+
+	@Test
+	void getVersionWhenUnknownThenNull() throws Exception {
+		JavaExecutable java = JavaExecutable.of(this.javaHome.resolve("bin/java").toString());
+		assertThat(java.getVersion()).isNull();
+		assertThat(java.getFeatureVersion()).isZero();
+	}
+
+	private String javaExecutable(String runtimeVersion) throws Exception {
+		Files.writeString(this.javaHome.resolve("release"), "JAVA_RUNTIME_VERSION=\"" + runtimeVersion + "\"\n");
+		return this.javaHome.resolve("bin/java").toString();
+	}
+
+}
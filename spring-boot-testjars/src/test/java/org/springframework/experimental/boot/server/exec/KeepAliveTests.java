@@ -0,0 +1,128 @@
+/*
+ * Copyright 2012-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.experimental.boot.server.exec;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.exec.CommandLine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.experimental.boot.server.exec.detector.KeepAliveMain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class KeepAliveTests {
+
+	@TempDir
+	Path directory;
+
+	private final List<Process> processes = new ArrayList<>();
+
+	@AfterEach
+	void destroyProcesses() {
+		this.processes.forEach(Process::destroyForcibly);
+	}
+
+	@Test
+	void attachOrLaunchWhenRunningThenAttaches() throws Exception {
+		KeepAlive first = new KeepAlive(this.directory, "fingerprint", Duration.ofMinutes(1));
+		KeepAlive second = new KeepAlive(this.directory, "fingerprint", Duration.ofMinutes(1));
+		Process launched = launch(first);
+		Process attached = launch(second);
+		assertThat(attached.pid()).isEqualTo(launched.pid());
+		assertThat(attached.isAlive()).isTrue();
+		assertThat(this.directory.resolve("fingerprint.server")).exists();
+	}
+
+	@Test
+	void attachOrLaunchWhenNotRunningThenLaunches() throws Exception {
+		KeepAlive first = new KeepAlive(this.directory, "fingerprint", Duration.ofMinutes(1));
+		Process launched = launch(first);
+		launched.destroyForcibly().waitFor();
+		KeepAlive second = new KeepAlive(this.directory, "fingerprint", Duration.ofMinutes(1));
+		assertThat(launch(second).pid()).isNotEqualTo(launched.pid());
+	}
+
+	@Test
+	void releaseWhenIdleTimeoutThenExits() throws Exception {
+		KeepAlive keepAlive = new KeepAlive(this.directory, "fingerprint", Duration.ofSeconds(1));
+		Process process = launch(keepAlive);
+		keepAlive.release();
+		assertTimeoutPreemptively(Duration.ofSeconds(10), () -> process.waitFor());
+		assertThat(this.directory.resolve("fingerprint.server")).doesNotExist();
+	}
+
+	@Test
+	void releaseThenDeletesLease() throws Exception {
+		KeepAlive keepAlive = new KeepAlive(this.directory, "fingerprint", Duration.ofMinutes(1));
+		launch(keepAlive);
+		keepAlive.release();
+		try (var leases = Files.newDirectoryStream(this.directory, "fingerprint.*.lease")) {
+			assertThat(leases).isEmpty();
+		}
+	}
+
+	@Test
+	void releaseWhenLeaseHeldByAnotherKeepAliveThenKeepsLease() throws Exception {
+		KeepAlive first = new KeepAlive(this.directory, "fingerprint", Duration.ofMinutes(1));
+		KeepAlive second = new KeepAlive(this.directory, "fingerprint", Duration.ofMinutes(1));
+		launch(first);
+		launch(second);
+		first.release();
+		first.release();
+		try (var leases = Files.newDirectoryStream(this.directory, "fingerprint.*.lease")) {
+			assertThat(leases).hasSize(1);
+		}
+		second.release();
+		try (var leases = Files.newDirectoryStream(this.directory, "fingerprint.*.lease")) {
+			assertThat(leases).isEmpty();
+		}
+	}
+
+	@Test
+	void attachOrLaunchThenOutputAppendedToLog() throws Exception {
+		KeepAlive keepAlive = new KeepAlive(this.directory, "fingerprint", Duration.ofSeconds(1));
+		Files.writeString(keepAlive.getLogFile(), "earlier run\n");
+		Process process = launch(keepAlive);
+		assertThat(keepAlive.launcher(new CommandLine("java")).getOutputFile())
+				.isEqualTo(keepAlive.getLogFile().toFile());
+		keepAlive.release();
+		assertTimeoutPreemptively(Duration.ofSeconds(10), () -> process.waitFor());
+		assertThat(keepAlive.getLogFile()).content()
+				.startsWith("earlier run\n")
+				.contains("Exiting since no JVM has used the application");
+	}
+
+	private Process launch(KeepAlive keepAlive) throws Exception {
+		CommandLine commandLine = new CommandLine(ProcessHandle.current().info().command().get());
+		keepAlive.getSystemProperties(SleepingMain.class.getName())
+				.forEach((name, value) -> commandLine.addArgument("-D" + name + "=" + value, false));
+		commandLine.addArguments(new String[] { "-classpath", System.getProperty("java.class.path"),
+				KeepAliveMain.class.getName() }, false);
+		Process process = keepAlive.attachOrLaunch(commandLine);
+		this.processes.add(process);
+		return process;
+	}
+
+}
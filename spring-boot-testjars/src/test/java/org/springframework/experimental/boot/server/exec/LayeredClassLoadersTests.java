@@ -0,0 +1,155 @@
+/*
+ * Copyright 2012-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.experimental.boot.server.exec;
+
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.springframework.experimental.boot.server.exec.LayeredClassLoaders.LibraryClassLoader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LayeredClassLoadersTests {
+
+	@TempDir
+	Path tmp;
+
+	@Test
+	void createWhenNotSharedThenParentIsPlatformClassLoader() throws Exception {
+		Path library = jar("first/library.jar", UUID.randomUUID().toString(), null);
+		try (URLClassLoader classLoader = LayeredClassLoaders.create(List.of(library.toString()), false)) {
+			assertThat(classLoader.getParent()).isSameAs(ClassLoader.getPlatformClassLoader());
+			assertThat(classLoader.getURLs()).hasSize(1);
+		}
+	}
+
+	@Test
+	void createWhenIdenticalJarsThenLibraryClassLoaderShared() throws Exception {
+		String content = UUID.randomUUID().toString();
+		Path first = jar("first/library.jar", content, null);
+		Path second = jar("second/library.jar", content, null);
+		Path application = Files.createDirectories(this.tmp.resolve("application"));
+		try (URLClassLoader firstClassLoader = LayeredClassLoaders.create(
+				List.of(application.toString(), first.toString()), true);
+				URLClassLoader secondClassLoader = LayeredClassLoaders.create(List.of(second.toString()), true)) {
+			assertThat(firstClassLoader.getParent()).isInstanceOf(LibraryClassLoader.class);
+			assertThat(secondClassLoader.getParent()).isSameAs(firstClassLoader.getParent());
+			assertThat(firstClassLoader.getURLs()).containsExactly(application.toUri().toURL());
+			assertThat(firstClassLoader.getResource("content.txt")).isNotNull();
+		}
+	}
+
+	@Test
+	void createWhenAdditionalJarThenParentIsSharedLibraryClassLoader() throws Exception {
+		Path common = jar("common.jar", UUID.randomUUID().toString(), null);
+		Path additional = jar("additional.jar", UUID.randomUUID().toString(), null);
+		try (URLClassLoader first = LayeredClassLoaders.create(List.of(common.toString()), true);
+				URLClassLoader second = LayeredClassLoaders.create(List.of(common.toString(), additional.toString()),
+						true)) {
+			ClassLoader library = second.getParent();
+			assertThat(library).isInstanceOf(LibraryClassLoader.class).isNotSameAs(first.getParent());
+			assertThat(library.getParent()).isSameAs(first.getParent());
+			assertThat(((URLClassLoader) library).getURLs()).containsExactly(additional.toUri().toURL());
+		}
+	}
+
+	@Test
+	void createWhenDifferentJarsThenCommonLibraryClassLoaderShared() throws Exception {
+		Path common = jar("common.jar", UUID.randomUUID().toString(), null);
+		Path first = jar("first.jar", UUID.randomUUID().toString(), null);
+		Path second = jar("second.jar", UUID.randomUUID().toString(), null);
+		Path third = jar("third.jar", UUID.randomUUID().toString(), null);
+		try (URLClassLoader firstClassLoader = LayeredClassLoaders.create(List.of(common.toString(), first.toString()),
+				true);
+				URLClassLoader secondClassLoader = LayeredClassLoaders
+					.create(List.of(common.toString(), second.toString()), true);
+				URLClassLoader thirdClassLoader = LayeredClassLoaders
+					.create(List.of(common.toString(), third.toString()), true)) {
+			ClassLoader shared = secondClassLoader.getParent().getParent();
+			assertThat(shared).isInstanceOf(LibraryClassLoader.class);
+			assertThat(((URLClassLoader) shared).getURLs()).containsExactly(common.toUri().toURL());
+			assertThat(((URLClassLoader) secondClassLoader.getParent()).getURLs())
+				.containsExactly(second.toUri().toURL());
+			assertThat(thirdClassLoader.getParent().getParent()).isSameAs(shared);
+			assertThat(((URLClassLoader) thirdClassLoader.getParent()).getURLs())
+				.containsExactly(third.toUri().toURL());
+		}
+	}
+
+	@Test
+	void createWhenMissingJarThenLibraryClassLoaderForCommonJars() throws Exception {
+		Path common = jar("common.jar", UUID.randomUUID().toString(), null);
+		Path additional = jar("additional.jar", UUID.randomUUID().toString(), null);
+		try (URLClassLoader first = LayeredClassLoaders.create(List.of(common.toString(), additional.toString()),
+				true); URLClassLoader second = LayeredClassLoaders.create(List.of(common.toString()), true)) {
+			assertThat(second.getParent()).isInstanceOf(LibraryClassLoader.class).isNotSameAs(first.getParent());
+			assertThat(((URLClassLoader) second.getParent()).getURLs()).containsExactly(common.toUri().toURL());
+		}
+	}
+
+	@Test
+	void closeWhenLibraryClassLoaderSharedThenReleasedByLastApplication() throws Exception {
+		Path library = jar("library.jar", UUID.randomUUID().toString(), null);
+		URLClassLoader first = LayeredClassLoaders.create(List.of(library.toString()), true);
+		URLClassLoader second = LayeredClassLoaders.create(List.of(library.toString()), true);
+		ClassLoader shared = first.getParent();
+		first.close();
+		assertThat(shared.getResource("content.txt")).isNotNull();
+		second.close();
+		assertThat(shared.getResource("content.txt")).isNull();
+		try (URLClassLoader third = LayeredClassLoaders.create(List.of(library.toString()), true)) {
+			assertThat(third.getParent()).isInstanceOf(LibraryClassLoader.class).isNotSameAs(shared);
+		}
+	}
+
+	@Test
+	void createWhenExecutableJarThenLoadedByApplicationClassLoader() throws Exception {
+		Path executable = jar("application.jar", UUID.randomUUID().toString(), "example.Main");
+		try (URLClassLoader classLoader = LayeredClassLoaders.create(List.of(executable.toString()), true)) {
+			assertThat(classLoader.getParent()).isSameAs(ClassLoader.getPlatformClassLoader());
+			assertThat(classLoader.getURLs()).containsExactly(executable.toUri().toURL());
+		}
+	}
+
+	private Path jar(String name, String content, String startClass) throws Exception {
+		Path jar = this.tmp.resolve(name);
+		Files.createDirectories(jar.getParent());
+		Manifest manifest = new Manifest();
+		manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+		if (startClass != null) {
+			manifest.getMainAttributes().putValue("Start-Class", startClass);
+		}
+		try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar), manifest)) {
+			out.putNextEntry(new JarEntry("content.txt"));
+			out.write(content.getBytes(StandardCharsets.UTF_8));
+			out.closeEntry();
+		}
+		return jar;
+	}
+
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2012-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.experimental.boot.server.exec;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.util.unit.DataSize;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+class MemoryBudgetTests {
+
+	@Test
+	void jvmOptionsThenMemoryDivided() {
+		assertThat(MemoryBudget.jvmOptions(DataSize.ofGigabytes(1))).containsExactly("-Xmx716m",
+				"-XX:MaxMetaspaceSize=204m", "-XX:ReservedCodeCacheSize=102m");
+	}
+
+	@Test
+	void jvmOptionsWhenLargeThenCodeCacheLimited() {
+		assertThat(MemoryBudget.jvmOptions(DataSize.ofGigabytes(16))).containsExactly("-Xmx12867m",
+				"-XX:MaxMetaspaceSize=3276m", "-XX:ReservedCodeCacheSize=240m");
+	}
+
+	@Test
+	void memoryThenSharesOfTotal() {
+		MemoryBudget budget = new MemoryBudget(DataSize.ofGigabytes(4));
+		assertThat(budget.memory(4, 1)).isEqualTo(DataSize.ofGigabytes(1));
+		assertThat(budget.memory(8, 6)).isEqualTo(DataSize.ofGigabytes(3));
+	}
+
+	@Test
+	void memoryWhenWeightGreaterThanSharesThenIllegalArgumentException() {
+		MemoryBudget budget = new MemoryBudget(DataSize.ofMegabytes(256));
+		assertThatIllegalArgumentException().isThrownBy(() -> budget.memory(2, 3));
+	}
+
+	@Test
+	void memoryWhenTooSmallThenIllegalArgumentException() {
+		MemoryBudget budget = new MemoryBudget(DataSize.ofMegabytes(100));
+		assertThatIllegalArgumentException().isThrownBy(() -> budget.memory(2, 1));
+	}
+
+	@Test
+	void getWhenSameTotalThenSameBudget() {
+		// the same total as CommonsExecWebServerFactoryBeanTests since the budget is JVM wide
+		assertThat(MemoryBudget.get(DataSize.ofMegabytes(4096))).isSameAs(MemoryBudget.get(DataSize.ofGigabytes(4)));
+	}
+
+	@Test
+	void getWhenDifferentTotalThenIllegalStateException() {
+		MemoryBudget.get(DataSize.ofGigabytes(4));
+		assertThatIllegalStateException().isThrownBy(() -> MemoryBudget.get(DataSize.ofGigabytes(3)))
+				.withMessageContaining("4096MB");
+	}
+
+	@Test
+	void reserveWhenDifferentSharesThenAccountedInBytes() {
+		MemoryBudget budget = new MemoryBudget(DataSize.ofMegabytes(1024));
+		Runnable release = budget.reserve(budget.memory(2, 1), Duration.ZERO);
+		try {
+			budget.reserve(budget.memory(4, 2), Duration.ZERO).run();
+			assertThatIllegalStateException()
+					.isThrownBy(() -> budget.reserve(budget.memory(3, 2), Duration.ofMillis(50)))
+					.withMessageContaining("512MB are used");
+		}
+		finally {
+			release.run();
+		}
+		budget.reserve(DataSize.ofMegabytes(1024), Duration.ZERO).run();
+	}
+
+	@Test
+	void reserveWhenExceedsTotalThenIllegalArgumentException() {
+		MemoryBudget budget = new MemoryBudget(DataSize.ofMegabytes(256));
+		assertThatIllegalArgumentException().isThrownBy(() -> budget.reserve(DataSize.ofMegabytes(257), Duration.ZERO));
+	}
+
+	@Test
+	void reserveWhenReleasedTwiceThenReleasedOnce() {
+		MemoryBudget budget = new MemoryBudget(DataSize.ofMegabytes(512));
+		Runnable first = budget.reserve(DataSize.ofMegabytes(256), Duration.ZERO);
+		Runnable second = budget.reserve(DataSize.ofMegabytes(256), Duration.ZERO);
+		first.run();
+		first.run();
+		try {
+			assertThatIllegalStateException()
+					.isThrownBy(() -> budget.reserve(DataSize.ofMegabytes(512), Duration.ZERO));
+		}
+		finally {
+			second.run();
+		}
+	}
+
+	@Test
+	void reserveWhenExceedsBudgetThenWaitsUntilReleased() throws Exception {
+		MemoryBudget budget = new MemoryBudget(DataSize.ofMegabytes(640));
+		Runnable release = budget.reserve(DataSize.ofMegabytes(640), Duration.ZERO);
+		CompletableFuture<Runnable> waiting = CompletableFuture
+				.supplyAsync(() -> budget.reserve(DataSize.ofMegabytes(128), Duration.ofSeconds(10)));
+		Thread.sleep(100);
+		assertThat(waiting).isNotDone();
+		release.run();
+		waiting.get(5, TimeUnit.SECONDS).run();
+	}
+
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2012-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.experimental.boot.server.exec;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisabledOnOs(OS.WINDOWS)
+class OrphanReaperTests {
+
+	@TempDir
+	Path directory;
+
+	private Process process;
+
+	@AfterEach
+	void destroyProcess() {
+		if (this.process != null) {
+			this.process.destroyForcibly();
+		}
+	}
+
+	@Test
+	void registerThenRecordedUntilUnregistered() throws Exception {
+		OrphanReaper reaper = new OrphanReaper(this.directory);
+		this.process = sleep();
+
+		reaper.register(this.process);
+
+		Path registry = registry(ProcessHandle.current());
+		List<String> lines = Files.readAllLines(registry);
+		assertThat(lines).hasSize(2);
+		assertThat(lines.get(0)).startsWith(ProcessHandle.current().pid() + " ");
+		assertThat(lines.get(1)).startsWith(this.process.pid() + " ");
+		reaper.unregister(this.process);
+		assertThat(registry).doesNotExist();
+	}
+
+	@Test
+	void sweepWhenOwnerExitedThenProcessDestroyed() throws Exception {
+		ProcessHandle owner = exitedProcess();
+		this.process = sleep();
+		new OrphanReaper(this.directory, owner).register(this.process);
+
+		new OrphanReaper(this.directory).sweep();
+
+		assertThat(this.process.waitFor(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(registry(owner)).doesNotExist();
+	}
+
+	@Test
+	void sweepWhenOwnerRunningThenProcessNotDestroyed() throws Exception {
+		this.process = sleep();
+		new OrphanReaper(this.directory).register(this.process);
+
+		new OrphanReaper(this.directory).sweep();
+
+		assertThat(this.process.isAlive()).isTrue();
+		assertThat(registry(ProcessHandle.current())).exists();
+	}
+
+	@Test
+	void sweepWhenProcessIdReusedThenProcessNotDestroyed() throws Exception {
+		ProcessHandle owner = exitedProcess();
+		this.process = sleep();
+		Path registry = registry(owner);
+		Files.createDirectories(registry.getParent());
+		Files.write(registry, List.of(owner.pid() + " -1", this.process.pid() + " 1"));
+
+		new OrphanReaper(this.directory).sweep();
+
+		assertThat(this.process.isAlive()).isTrue();
+		assertThat(registry).doesNotExist();
+	}
+
+	@Test
+	void sweepWhenStartTimeUnknownThenProcessNotDestroyed() throws Exception {
+		ProcessHandle owner = exitedProcess();
+		this.process = sleep();
+		Path registry = registry(owner);
+		Files.createDirectories(registry.getParent());
+		Files.write(registry, List.of(owner.pid() + " -1", this.process.pid() + " -1"));
+
+		new OrphanReaper(this.directory).sweep();
+
+		assertThat(this.process.isAlive()).isTrue();
+		assertThat(registry).doesNotExist();
+	}
+
+	@Test
+	void sweepWhenOwnerStartTimeUnknownAndRunningThenProcessNotDestroyed() throws Exception {
+		this.process = sleep();
+		ProcessHandle owner = ProcessHandle.current();
+		Path registry = registry(owner);
+		Files.createDirectories(registry.getParent());
+		Files.write(registry, List.of(owner.pid() + " -1",
+				this.process.pid() + " " + this.process.info().startInstant().get().toEpochMilli()));
+
+		new OrphanReaper(this.directory).sweep();
+
+		assertThat(this.process.isAlive()).isTrue();
+		assertThat(registry).exists();
+	}
+
+	@Test
+	void sweepThenTempPathsOfExitedProcessDeleted() throws Exception {
+		long exited = exitedProcess().pid();
+		long current = ProcessHandle.current().pid();
+		Path exitedClasspath = Files.createDirectories(this.directory.resolve("testjars-classpath-" + exited + "-1"));
+		Files.createFile(exitedClasspath.resolve("a.txt"));
+		Path exitedPortFile = Files.createFile(this.directory.resolve("testjars-port-" + exited + "-1.port"));
+		Path currentClasspath = Files.createDirectories(this.directory.resolve("testjars-classpath-" + current + "-1"));
+		Path other = Files.createDirectories(this.directory.resolve("other-" + exited + "-1"));
+
+		new OrphanReaper(this.directory).sweep();
+
+		assertThat(exitedClasspath).doesNotExist();
+		assertThat(exitedPortFile).doesNotExist();
+		assertThat(currentClasspath).exists();
+		assertThat(other).exists();
+	}
+
+	private Path registry(ProcessHandle owner) {
+		return this.directory.resolve("testjars-processes").resolve(owner.pid() + ".pids");
+	}
+
+	private static Process sleep() throws Exception {
+		return new ProcessBuilder("sleep", "600").start();
+	}
+
+	private static ProcessHandle exitedProcess() throws Exception {
+		Process process = new ProcessBuilder("true").start();
+		process.waitFor();
+		return process.toHandle();
+	}
+
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2012-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.experimental.boot.server.exec;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class OutputMatcherTests {
+
+	private OutputMatcher matcher = new OutputMatcher(
+			List.of(Pattern.compile("started on port (\\d+)"), Pattern.compile("^Ready$")));
+
+	@Test
+	void teeWritesToOutput() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		write(this.matcher.tee(out), "started on port 8080\nmore\n");
+		assertThat(out.toString(Charset.defaultCharset())).isEqualTo("started on port 8080\nmore\n");
+	}
+
+	@Test
+	void getPortWhenMatchesThenFirstGroup() throws Exception {
+		write(this.matcher.tee(OutputStream.nullOutputStream()), "starting\nTomcat started on port 8080 (http)\n");
+		assertThat(this.matcher.getPort()).isCompletedWithValue(8080);
+	}
+
+	@Test
+	void getPortWhenLineSplitAcrossWritesThenMatches() throws Exception {
+		OutputStream tee = this.matcher.tee(OutputStream.nullOutputStream());
+		write(tee, "started on ");
+		write(tee, "port 80");
+		assertThat(this.matcher.getPort()).isNotDone();
+		write(tee, "80\n");
+		assertThat(this.matcher.getPort()).isCompletedWithValue(8080);
+	}
+
+	@Test
+	void getPortWhenNoGroupThenMinusOne() throws Exception {
+		write(this.matcher.tee(OutputStream.nullOutputStream()), "Ready\n");
+		assertThat(this.matcher.getPort()).isCompletedWithValue(-1);
+	}
+
+	@Test
+	void getPortWhenLineNotTerminatedThenNotDone() throws Exception {
+		write(this.matcher.tee(OutputStream.nullOutputStream()), "started on port 8080");
+		assertThat(this.matcher.getPort()).isNotDone();
+	}
+
+	@Test
+	void getPortWhenLineNotTerminatedAndFlushedThenMatches() throws Exception {
+		OutputStream tee = this.matcher.tee(OutputStream.nullOutputStream());
+		write(tee, "starting\nstarted on port 8080");
+		tee.flush();
+		assertThat(this.matcher.getPort()).isCompletedWithValue(8080);
+	}
+
+	@Test
+	void getPortWhenLineNotTerminatedAndClosedThenMatches() throws Exception {
+		OutputStream tee = this.matcher.tee(OutputStream.nullOutputStream());
+		write(tee, "Ready");
+		tee.close();
+		assertThat(this.matcher.getPort()).isCompletedWithValue(-1);
+	}
+
+	@Test
+	void getPortWhenCarriageReturnThenMatches() throws Exception {
+		write(this.matcher.tee(OutputStream.nullOutputStream()), "starting\r\nReady\r\n");
+		assertThat(this.matcher.getPort()).isCompletedWithValue(-1);
+	}
+
+	@Test
+	void getPortWhenStreamsInterleavedThenLinesNotMixed() throws Exception {
+		OutputStream out = this.matcher.tee(OutputStream.nullOutputStream());
+		OutputStream err = this.matcher.tee(OutputStream.nullOutputStream());
+		write(out, "started on ");
+		write(err, "port 1\n");
+		assertThat(this.matcher.getPort()).isNotDone();
+		write(out, "port 2\n");
+		assertThat(this.matcher.getPort()).isCompletedWithValue(2);
+	}
+
+	@Test
+	void getPortWhenLineLongerThanBufferThenTruncated() throws Exception {
+		OutputStream tee = this.matcher.tee(OutputStream.nullOutputStream());
+		write(tee, "x".repeat(10 * 1024) + "started on port 8080\n");
+		assertThat(this.matcher.getPort()).isNotDone();
+		write(tee, "started on port 8081\n");
+		assertThat(this.matcher.getPort()).isCompletedWithValue(8081);
+	}
+
+	@Test
+	void getPortWhenGroupNotNumberThenCompletedExceptionally() throws Exception {
+		OutputMatcher matcher = new OutputMatcher(List.of(Pattern.compile("port (\\w+)")));
+		write(matcher.tee(OutputStream.nullOutputStream()), "port http\n");
+		assertThatExceptionOfType(CompletionException.class).isThrownBy(() -> matcher.getPort().join())
+				.withMessageContaining("which is not a port");
+	}
+
+	@Test
+	void stopThenCompletedExceptionally() {
+		this.matcher.stop();
+		assertThat(this.matcher.getPort()).isCompletedExceptionally();
+	}
+
+	private static void write(OutputStream out, String text) throws IOException {
+		out.write(text.getBytes(Charset.defaultCharset()));
+	}
+
+}
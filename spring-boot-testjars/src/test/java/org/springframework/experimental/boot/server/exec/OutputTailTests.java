@@ -0,0 +1,98 @@
+/*
+ * Copyright 2012-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.experimental.boot.server.exec;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OutputTailTests {
+
+	private OutputTail tail = new OutputTail(8);
+
+	@TempDir
+	Path tmp;
+
+	@Test
+	void toStringWhenNotFull() {
+		write("abc");
+		assertThat(this.tail.toString()).isEqualTo("abc");
+	}
+
+	@Test
+	void toStringWhenWrapsThenLastBytes() {
+		write("abcdef");
+		write("ghijk");
+		assertThat(this.tail.toString()).isEqualTo("defghijk");
+	}
+
+	@Test
+	void toStringWhenLargerThanCapacityThenLastBytes() {
+		write("0123456789");
+		assertThat(this.tail.toString()).isEqualTo("23456789");
+	}
+
+	@Test
+	void teeWritesToBoth() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		OutputStream tee = this.tail.tee(out);
+		tee.write("hello".getBytes(Charset.defaultCharset()));
+		assertThat(out.toString(Charset.defaultCharset())).isEqualTo("hello");
+		assertThat(this.tail.toString()).isEqualTo("hello");
+	}
+
+	@Test
+	void teeWhenSingleBytesThenWritesToBoth() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		OutputStream tee = this.tail.tee(out);
+		for (byte b : "0123456789".getBytes(Charset.defaultCharset())) {
+			tee.write(b);
+		}
+		assertThat(out.toString(Charset.defaultCharset())).isEqualTo("0123456789");
+		assertThat(this.tail.toString()).isEqualTo("23456789");
+	}
+
+	@Test
+	void readFromWhenLargerThanCapacityThenLastBytes() throws Exception {
+		write("abc");
+		File file = Files.writeString(this.tmp.resolve("output.log"), "0123456789").toFile();
+		this.tail.readFrom(file);
+		assertThat(this.tail.toString()).isEqualTo("23456789");
+	}
+
+	@Test
+	void readFromWhenSmallerThanCapacityThenAllBytes() throws Exception {
+		write("abcdefghij");
+		File file = Files.writeString(this.tmp.resolve("output.log"), "012").toFile();
+		this.tail.readFrom(file);
+		assertThat(this.tail.toString()).isEqualTo("012");
+	}
+
+	private void write(String value) {
+		byte[] bytes = value.getBytes(Charset.defaultCharset());
+		this.tail.write(bytes, 0, bytes.length);
+	}
+
+}
@@ -16,20 +16,31 @@
 
 package org.springframework.experimental.boot.server.exec;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.willThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 
 class ProcessDestroyerBeanTests {
 
-	ProcessDestroyerBean processDestroyer = new ProcessDestroyerBean();
+	OrphanReaper orphanReaper = mock(OrphanReaper.class);
+
+	ProcessDestroyerBean processDestroyer = new ProcessDestroyerBean(this.orphanReaper);
 
 	@Test
 	void destroyAllInvokesDestroy() {
-		Process process = mock(Process.class);
+		Process process = process(CompletableFuture.completedFuture(null));
 		this.processDestroyer.add(process);
 
 		this.processDestroyer.destroyAll();
@@ -39,8 +50,8 @@ class ProcessDestroyerBeanTests {
 
 	@Test
 	void destroyAllWhenThrowsContinues() throws Exception {
-		Process errorProcess = mock(Process.class);
-		Process process = mock(Process.class);
+		Process errorProcess = process(CompletableFuture.completedFuture(null));
+		Process process = process(CompletableFuture.completedFuture(null));
 		willThrow(new RuntimeException("Error")).given(errorProcess).destroy();
 		this.processDestroyer.add(errorProcess);
 		this.processDestroyer.add(process);
@@ -53,7 +64,7 @@ class ProcessDestroyerBeanTests {
 
 	@Test
 	void destroyAllWhenRemoveThenNoInteractions() {
-		Process process = mock(Process.class);
+		Process process = process(CompletableFuture.completedFuture(null));
 		this.processDestroyer.add(process);
 		this.processDestroyer.remove(process);
 
@@ -62,4 +73,73 @@ class ProcessDestroyerBeanTests {
 		verifyNoInteractions(process);
 	}
 
+	@Test
+	void addThenRegisteredWithOrphanReaperUntilRemoved() {
+		Process process = process(CompletableFuture.completedFuture(null));
+		this.processDestroyer.add(process);
+		this.processDestroyer.remove(process);
+
+		verify(this.orphanReaper).register(process);
+		verify(this.orphanReaper).unregister(process);
+	}
+
+	@Test
+	void addWhenNotReapedWhenOrphanedThenNotRegisteredWithOrphanReaper() {
+		Process process = process(CompletableFuture.completedFuture(null));
+		this.processDestroyer.add(process, false);
+
+		verify(this.orphanReaper, never()).register(process);
+	}
+
+	@Test
+	void destroyAllWhenExitsWithinGracePeriodThenNotDestroyedForcibly() {
+		Process process = process(CompletableFuture.completedFuture(null));
+		this.processDestroyer.add(process);
+
+		this.processDestroyer.destroyAll().join();
+
+		verify(process).destroy();
+		verify(process, never()).destroyForcibly();
+	}
+
+	@Test
+	void destroyAllWhenNotExitedWithinGracePeriodThenDestroyedForcibly() {
+		CompletableFuture<Process> exit = new CompletableFuture<>();
+		Process process = process(exit);
+		given(process.destroyForcibly()).will((invocation) -> {
+			exit.complete(process);
+			return process;
+		});
+		this.processDestroyer.setGracePeriod(Duration.ofMillis(10));
+		this.processDestroyer.add(process);
+
+		this.processDestroyer.destroyAll().join();
+
+		verify(process).destroy();
+		verify(process).destroyForcibly();
+	}
+
+	@Test
+	@DisabledOnOs(OS.WINDOWS)
+	void destroyAllThenDescendantsDestroyed() throws Exception {
+		Process process = new ProcessBuilder("sh", "-c", "sleep 600 & sleep 600 & wait").start();
+		while (process.descendants().count() < 2) {
+			Thread.sleep(10);
+		}
+		List<ProcessHandle> descendants = process.descendants().toList();
+		this.processDestroyer.add(process);
+
+		this.processDestroyer.destroyAll().join();
+
+		assertThat(process.isAlive()).isFalse();
+		assertThat(descendants).noneMatch(ProcessHandle::isAlive);
+	}
+
+	private static Process process(CompletableFuture<Process> exit) {
+		Process process = mock(Process.class);
+		given(process.toHandle()).willThrow(UnsupportedOperationException.class);
+		given(process.onExit()).willReturn(exit);
+		return process;
+	}
+
 }
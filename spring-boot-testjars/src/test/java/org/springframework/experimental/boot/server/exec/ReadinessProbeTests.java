@@ -0,0 +1,102 @@
+/*
+ * Copyright 2012-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.experimental.boot.server.exec;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class ReadinessProbeTests {
+
+	private final AtomicInteger requests = new AtomicInteger();
+
+	private volatile int readyAfter;
+
+	private HttpServer server;
+
+	@BeforeEach
+	void startServer() throws Exception {
+		this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		this.server.createContext("/ready", (exchange) -> {
+			int status = (this.requests.incrementAndGet() > this.readyAfter) ? 200 : 503;
+			exchange.sendResponseHeaders(status, -1);
+			exchange.close();
+		});
+		this.server.start();
+	}
+
+	@AfterEach
+	void stopServer() {
+		this.server.stop(0);
+	}
+
+	@Test
+	void probeWhenReadyThenCompletedWithPort() {
+		int port = this.server.getAddress().getPort();
+		assertThat(new ReadinessProbe("/ready").probe(port, Duration.ofSeconds(10)).join()).isEqualTo(port);
+		assertThat(this.requests).hasValue(1);
+	}
+
+	@Test
+	void probeWhenNotReadyThenRetried() {
+		this.readyAfter = 3;
+		int port = this.server.getAddress().getPort();
+		assertThat(new ReadinessProbe("/ready").probe(port, Duration.ofSeconds(10)).join()).isEqualTo(port);
+		assertThat(this.requests).hasValue(4);
+	}
+
+	@Test
+	void probeWhenNotReadyWithinTimeoutThenTimeoutException() {
+		this.readyAfter = Integer.MAX_VALUE;
+		int port = this.server.getAddress().getPort();
+		CompletableFuture<Integer> ready = new ReadinessProbe("/ready").probe(port, Duration.ofMillis(100));
+		assertThatExceptionOfType(CompletionException.class).isThrownBy(ready::join)
+				.withCauseInstanceOf(TimeoutException.class).withMessageContaining("/ready")
+				.withMessageContaining("status 503");
+	}
+
+	@Test
+	void probeWhenCancelledThenStopsProbing() throws Exception {
+		this.readyAfter = Integer.MAX_VALUE;
+		CompletableFuture<Integer> ready = new ReadinessProbe("/ready").probe(this.server.getAddress().getPort(),
+				null);
+		ready.cancel(false);
+		Thread.sleep(200);
+		int requests = this.requests.get();
+		Thread.sleep(200);
+		assertThat(this.requests).hasValue(requests);
+	}
+
+	@Test
+	void probeWhenPortUnknownThenIllegalStateException() {
+		assertThatExceptionOfType(CompletionException.class)
+				.isThrownBy(() -> new ReadinessProbe("/ready").probe(-1, null).join())
+				.withCauseInstanceOf(IllegalStateException.class);
+	}
+
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2012-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.experimental.boot.server.exec;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.commons.exec.CommandLine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RedirectingProcessLauncherTests {
+
+	@TempDir
+	Path tmp;
+
+	@Test
+	void launchThenOutputAppendedToFile() throws Exception {
+		File outputFile = this.tmp.resolve("output.log").toFile();
+		RedirectingProcessLauncher launcher = new RedirectingProcessLauncher(printCommand("first"), outputFile);
+		assertThat(launcher.launch().waitFor()).isEqualTo(0);
+		launcher = new RedirectingProcessLauncher(printCommand("second"), outputFile);
+		assertThat(launcher.launch().waitFor()).isEqualTo(0);
+		assertThat(Files.readString(outputFile.toPath())).contains("testjars.value=first")
+				.contains("testjars.value=second");
+		assertThat(launcher.getOutputFile()).isEqualTo(outputFile);
+	}
+
+	private static CommandLine printCommand(String value) {
+		CommandLine commandLine = new CommandLine(ProcessHandle.current().info().command().get());
+		commandLine.addArgument("-Dtestjars.print=testjars.value");
+		commandLine.addArgument("-Dtestjars.value=" + value);
+		commandLine.addArgument("-classpath");
+		commandLine.addArgument(System.getProperty("java.class.path"), false);
+		commandLine.addArgument(SystemPropertyMain.class.getName());
+		return commandLine;
+	}
+
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2012-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.experimental.boot.server.exec;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResidentLauncherPoolTests {
+
+	private final String executable = ProcessHandle.current().info().command().get();
+
+	private final List<String> classpath = Arrays
+			.asList(System.getProperty("java.class.path").split(File.pathSeparator));
+
+	@Test
+	void launchThenRunsMainClassWithSystemProperties() throws Exception {
+		ResidentLauncherPool pool = ResidentLauncherPool.get(this.executable, List.of("-Xss1m"), 1);
+		Process process = pool.launch(this.classpath, SystemPropertyMain.class.getName(),
+				Map.of("testjars.print", "message", "message", "hello world"));
+		String output = new String(process.getInputStream().readAllBytes(), Charset.defaultCharset());
+		assertThat(process.waitFor()).isZero();
+		assertThat(output).contains("message=hello world").contains("classLoader=java.net.URLClassLoader");
+	}
+
+	@Test
+	void launchWhenLaunchedTwiceThenDifferentProcesses() throws Exception {
+		ResidentLauncherPool pool = ResidentLauncherPool.get(this.executable, List.of("-Xss2m"), 1);
+		Map<String, String> systemProperties = Map.of("testjars.print", "message", "message", "hello");
+		Process first = pool.launch(this.classpath, SystemPropertyMain.class.getName(), systemProperties);
+		Process second = pool.launch(this.classpath, SystemPropertyMain.class.getName(), systemProperties);
+		assertThat(first.pid()).isNotEqualTo(second.pid());
+		assertThat(first.waitFor()).isZero();
+		assertThat(second.waitFor()).isZero();
+	}
+
+	@Test
+	void getWhenSameExecutableAndJvmOptionsThenSamePool() {
+		assertThat(ResidentLauncherPool.get(this.executable, List.of("-Xss3m"), 1))
+				.isSameAs(ResidentLauncherPool.get(this.executable, List.of("-Xss3m"), 1));
+	}
+
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2012-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.experimental.boot.server.exec;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.exec.CommandLine;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class SharedWebServerRegistryTests {
+
+	@TempDir
+	Path tmp;
+
+	@Test
+	void fingerprintWhenOnlyPortFileAndDirectoryNamesDifferThenSame() throws Exception {
+		CommandLine first = commandLine("-DPORTFILE=/tmp/first.port", "-Da=1", "-Db=2", directory("first"));
+		CommandLine second = commandLine("-DPORTFILE=/tmp/second.port", "-Db=2", "-Da=1", directory("second"));
+		assertThat(SharedWebServerRegistry.fingerprint(first))
+				.isEqualTo(SharedWebServerRegistry.fingerprint(second));
+	}
+
+	@Test
+	void fingerprintWhenSystemPropertyDiffersThenDifferent() throws Exception {
+		String classpath = directory("app");
+		CommandLine first = commandLine("-DPORTFILE=/tmp/first.port", "-Da=1", "-Db=2", classpath);
+		CommandLine second = commandLine("-DPORTFILE=/tmp/first.port", "-Da=1", "-Db=3", classpath);
+		assertThat(SharedWebServerRegistry.fingerprint(first))
+				.isNotEqualTo(SharedWebServerRegistry.fingerprint(second));
+	}
+
+	@Test
+	void acquireWhenRunningThenSharedUntilLastRelease() {
+		CommonsExecWebServer shared = SharedWebServerRegistry.acquire("running", this::sleepingServer);
+		assertThat(SharedWebServerRegistry.acquire("running", this::unexpectedServer)).isSameAs(shared);
+		SharedWebServerRegistry.release(shared);
+		assertThat(shared.hasExited()).isFalse();
+		SharedWebServerRegistry.release(shared);
+		assertTimeoutPreemptively(Duration.ofSeconds(30), shared::waitForServer);
+		assertThat(shared.hasExited()).isTrue();
+	}
+
+	@Test
+	void acquireWhenStartingThenAwaitsServerWithoutBlockingOtherFingerprints() throws Exception {
+		CountDownLatch creating = new CountDownLatch(1);
+		CountDownLatch created = new CountDownLatch(1);
+		CompletableFuture<CommonsExecWebServer> first = CompletableFuture
+				.supplyAsync(() -> SharedWebServerRegistry.acquire("starting", () -> {
+					creating.countDown();
+					await(created);
+					return sleepingServer();
+				}));
+		assertThat(creating.await(30, TimeUnit.SECONDS)).isTrue();
+		CompletableFuture<CommonsExecWebServer> second = CompletableFuture
+				.supplyAsync(() -> SharedWebServerRegistry.acquire("starting", this::unexpectedServer));
+		CommonsExecWebServer other = assertTimeoutPreemptively(Duration.ofSeconds(30),
+				() -> SharedWebServerRegistry.acquire("other", this::sleepingServer));
+		SharedWebServerRegistry.release(other);
+		assertThat(second).isNotDone();
+		created.countDown();
+		CommonsExecWebServer shared = first.get(30, TimeUnit.SECONDS);
+		assertThat(second.get(30, TimeUnit.SECONDS)).isSameAs(shared);
+		SharedWebServerRegistry.release(shared);
+		SharedWebServerRegistry.release(shared);
+		assertTimeoutPreemptively(Duration.ofSeconds(30), shared::waitForServer);
+	}
+
+	@Test
+	void acquireWhenCandidateFailsThenNotRegistered() {
+		assertThatIllegalStateException().isThrownBy(() -> SharedWebServerRegistry.acquire("failing", () -> {
+			throw new IllegalStateException("Failed to build");
+		}));
+		CommonsExecWebServer server = SharedWebServerRegistry.acquire("failing", this::sleepingServer);
+		SharedWebServerRegistry.release(server);
+		assertTimeoutPreemptively(Duration.ofSeconds(30), server::waitForServer);
+	}
+
+	private CommonsExecWebServer sleepingServer() {
+		return CommonsExecWebServerFactoryBean.builder()
+				.mainClass(SleepingMain.class.getName())
+				.classpath((cp) -> cp.classes(SleepingMain.class))
+				.systemProperties((props) -> props.put("testjars.test", getClass().getName()))
+				.launch();
+	}
+
+	private CommonsExecWebServer unexpectedServer() {
+		throw new AssertionError("The running server was not reused");
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	private CommandLine commandLine(String portFile, String a, String b, String classpath) {
+		CommandLine commandLine = new CommandLine("java");
+		commandLine.addArguments(new String[] { portFile, a, b, "-classpath", classpath, "example.Main" }, false);
+		return commandLine;
+	}
+
+	private String directory(String name) throws Exception {
+		Path directory = Files.createDirectories(this.tmp.resolve(name));
+		Files.writeString(directory.resolve("application.properties"), "a=b");
+		return directory.toString();
+	}
+
+}
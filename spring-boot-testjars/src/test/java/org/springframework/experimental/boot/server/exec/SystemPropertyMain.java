@@ -0,0 +1,34 @@
+/*
+ * Copyright 2012-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.experimental.boot.server.exec;
+
+/**
+ * A main class that prints the system property named {@code testjars.print} and the
+ * class loader it was loaded by, used for testing how applications are launched.
+ */
+public final class SystemPropertyMain {
+
+	public static void main(String[] args) {
+		String name = System.getProperty("testjars.print");
+		System.out.println(name + "=" + System.getProperty(name));
+		System.out.println("classLoader=" + SystemPropertyMain.class.getClassLoader().getClass().getName());
+	}
+
+	private SystemPropertyMain() {
+	}
+
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2012-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.experimental.boot.server.exec;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatException;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+class WebServerLaunchCoordinatorTests {
+
+	private CommonsExecWebServerFactoryBean first = CommonsExecWebServerFactoryBean.builder();
+
+	private CommonsExecWebServerFactoryBean second = spy(CommonsExecWebServerFactoryBean.builder());
+
+	@AfterEach
+	void destroy() throws Exception {
+		this.first.destroy();
+		this.second.destroy();
+	}
+
+	@Test
+	void launchThenStartsAllServers() {
+		WebServerLaunchCoordinator coordinator = new WebServerLaunchCoordinator(List.of(this.first, this.second));
+
+		coordinator.launch();
+
+		verify(this.second).launch();
+		assertThat(this.first.launch().getCommandLine()).isNotNull();
+	}
+
+	@Test
+	void awaitReadyWhenServerFailsThenFails() {
+		WebServerLaunchCoordinator coordinator = new WebServerLaunchCoordinator(List.of(this.first, this.second));
+
+		assertThatException().isThrownBy(coordinator::awaitReady);
+	}
+
+	@Test
+	void awaitReadyWhenReadinessDeferredThenOnlyLaunches() {
+		this.first.deferReadiness(true);
+		this.second.deferReadiness(true);
+		WebServerLaunchCoordinator coordinator = new WebServerLaunchCoordinator(List.of(this.first, this.second));
+
+		coordinator.awaitReady();
+
+		verify(this.second).launch();
+		assertThatException().isThrownBy(() -> this.first.launch().getPort());
+	}
+
+	@Test
+	void getObjectWhenListableBeanFactoryThenLaunchesOtherFactoryBeans() throws Exception {
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		beanFactory.registerSingleton("first", this.first);
+		beanFactory.registerSingleton("second", this.second);
+		this.first.setBeanFactory(beanFactory);
+
+		this.first.getObject();
+
+		verify(this.second).launch();
+	}
+
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2012-2026 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.experimental.boot.server.exec.detector;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+
+import org.springframework.experimental.boot.server.exec.SleepingMain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ParentWatchdogMainTests {
+
+	@Test
+	void mainThenRunsMainClassWithRemainingArguments() throws Throwable {
+		ParentWatchdogMain.main(new String[] { RecordingMain.class.getName(), "one", "two" });
+		assertThat(RecordingMain.args).containsExactly("one", "two");
+	}
+
+	@Test
+	@DisabledOnOs(OS.WINDOWS)
+	void mainWhenParentExitsThenExits() throws Exception {
+		Process parent = new ProcessBuilder("sleep", "600").start();
+		Process application = new ProcessBuilder(ProcessHandle.current().info().command().get(),
+				"-D" + ParentWatchdogMain.PARENT_PID + "=" + parent.pid(), "-classpath",
+				System.getProperty("java.class.path"), ParentWatchdogMain.class.getName(), SleepingMain.class.getName())
+			.start();
+		try {
+			assertThat(application.waitFor(1, TimeUnit.SECONDS)).isFalse();
+			parent.destroyForcibly();
+			assertThat(application.waitFor(30, TimeUnit.SECONDS)).isTrue();
+			assertThat(application.exitValue()).isEqualTo(1);
+		}
+		finally {
+			parent.destroyForcibly();
+			application.destroyForcibly();
+		}
+	}
+
+	public static final class RecordingMain {
+
+		static String[] args;
+
+		public static void main(String[] args) {
+			RecordingMain.args = args;
+		}
+
+	}
+
+}